@@ -0,0 +1,88 @@
+package com.marvel.hospitality.reservationservice;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.marvel.hospitality.reservationservice.entity.RoomLock;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import com.marvel.hospitality.reservationservice.repository.RoomLockRepository;
+import org.slf4j.LoggerFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Shared fixtures for the JMH benchmarks: in-memory stand-ins for infrastructure so that a benchmark
+ * measures the code under test and not the database, network or console.
+ */
+public final class BenchmarkSupport {
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * The per-request INFO logs would otherwise dominate the measurements.
+     */
+    public static void quietLogging() {
+        ((Logger) LoggerFactory.getLogger(org.slf4j.Logger.ROOT_LOGGER_NAME)).setLevel(Level.WARN);
+    }
+
+    /**
+     * Repository whose save/saveAll hand back their argument and whose reads return nothing.
+     * Unlike a Mockito mock it records no invocations, so it does not grow during a long run.
+     */
+    public static ReservationRepository inMemoryRepository() {
+        return (ReservationRepository) Proxy.newProxyInstance(
+                ReservationRepository.class.getClassLoader(),
+                new Class<?>[]{ReservationRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "save", "saveAll" -> args[0];
+                    case "findStaysEndingAfter" -> List.of();
+                    case "existsOverlapping" -> false;
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryReservationRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Room locks that every room already has, so each booking takes its lock on the first attempt.
+     */
+    public static RoomLockRepository inMemoryRoomLocks() {
+        return (RoomLockRepository) Proxy.newProxyInstance(
+                RoomLockRepository.class.getClassLoader(),
+                new Class<?>[]{RoomLockRepository.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "lock" -> Optional.of(new RoomLock((String) args[0]));
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    case "toString" -> "InMemoryRoomLockRepository";
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    /**
+     * Transaction manager whose transactions do nothing, for code that demarcates its own.
+     */
+    public static PlatformTransactionManager noTransactions() {
+        return new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        };
+    }
+}
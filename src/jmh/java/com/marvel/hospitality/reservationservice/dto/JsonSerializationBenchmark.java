@@ -0,0 +1,72 @@
+package com.marvel.hospitality.reservationservice.dto;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
+import com.marvel.hospitality.reservationservice.model.RoomSegment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON (de)serialization of the request and event payloads. {@code ReservationRequest} goes through
+ * the Jackson 3 mapper used by Spring MVC; {@code PaymentUpdateEvent} through a Jackson 2
+ * {@link ObjectMapper} data-binding the whole event. The listener's streaming read of the same
+ * payload is measured by {@code PaymentUpdateReaderBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private final JsonMapper jsonMapper = JsonMapper.builder().build();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private ReservationRequest request;
+    private String requestJson;
+    private PaymentUpdateEvent event;
+    private String eventJson;
+
+    @Setup
+    public void setUp() throws Exception {
+        request = new ReservationRequest("John Doe", "101", LocalDate.of(2030, 3, 1), LocalDate.of(2030, 3, 5),
+                RoomSegment.MEDIUM, PaymentMode.CREDIT_CARD, "PAYREF-123456");
+        requestJson = jsonMapper.writeValueAsString(request);
+        event = new PaymentUpdateEvent("pay-001", "NL91ABNA0417164300", new BigDecimal("499.99"), "E2E1234567 ABCD1234");
+        eventJson = objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public String serializeReservationRequest() {
+        return jsonMapper.writeValueAsString(request);
+    }
+
+    @Benchmark
+    public ReservationRequest deserializeReservationRequest() {
+        return jsonMapper.readValue(requestJson, ReservationRequest.class);
+    }
+
+    @Benchmark
+    public String serializePaymentUpdateEvent() throws Exception {
+        return objectMapper.writeValueAsString(event);
+    }
+
+    @Benchmark
+    public PaymentUpdateEvent deserializePaymentUpdateEvent() throws Exception {
+        return objectMapper.readValue(eventJson, PaymentUpdateEvent.class);
+    }
+}
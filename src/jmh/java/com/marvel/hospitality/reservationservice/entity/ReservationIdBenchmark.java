@@ -0,0 +1,61 @@
+package com.marvel.hospitality.reservationservice.entity;
+
+import com.marvel.hospitality.reservationservice.id.ReservationIdGenerator;
+import com.marvel.hospitality.reservationservice.id.TimeOrderedReservationIdGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Id assignment in {@link Reservation#onCreate()}, against the generator alone and the former
+ * random-UUID based ids. The {@code _contended} variants run on 4 threads sharing one generator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationIdBenchmark {
+
+    private final ReservationIdGenerator generator = new TimeOrderedReservationIdGenerator(1);
+
+    @Benchmark
+    public Reservation onCreate() {
+        Reservation reservation = new Reservation();
+        reservation.onCreate();
+        return reservation;
+    }
+
+    @Benchmark
+    public String timeOrderedId() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String timeOrderedId_contended() {
+        return generator.nextId();
+    }
+
+    @Benchmark
+    public String legacyUuidId() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+    }
+
+    @Benchmark
+    @Threads(4)
+    public String legacyUuidId_contended() {
+        return UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+    }
+}
@@ -0,0 +1,98 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+import com.marvel.hospitality.reservationservice.BenchmarkSupport;
+import com.marvel.hospitality.reservationservice.service.ReservationService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing and validation cost of a bank-transfer payment update, record by record and as a batch
+ * of 500 (one poll), plus the dispatch overhead of the ordered-parallel mode. The reservation service
+ * is a no-op, so no database work is included.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentUpdateListenerBenchmark {
+
+    private static final int BATCH_SIZE = 500;
+
+    private OrderedParallelExecutor parallelExecutor;
+    private PaymentUpdateListener listener;
+    private ConsumerRecord<String, byte[]> consumerRecord;
+    private List<ConsumerRecord<String, byte[]>> batch;
+    private Blackhole blackhole;
+
+    @Setup
+    public void setUp(Blackhole blackhole) {
+        BenchmarkSupport.quietLogging();
+        this.blackhole = blackhole;
+        ReservationService noOpService = (ReservationService) Proxy.newProxyInstance(
+                ReservationService.class.getClassLoader(),
+                new Class<?>[]{ReservationService.class},
+                (proxy, method, args) -> {
+                    if (args != null) {
+                        blackhole.consume(args[0]);
+                    }
+                    return null;
+                });
+        parallelExecutor = new OrderedParallelExecutor(16);
+        listener = new PaymentUpdateListener(noOpService, new PaymentUpdateReader(JsonMapper.builder().build()),
+                parallelExecutor, new SimpleMeterRegistry());
+
+        consumerRecord = new ConsumerRecord<>("topic", 0, 0, null, payload("ABCD1234"));
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            batch.add(new ConsumerRecord<>("topic", 0, i, null, payload("BATCH%03d".formatted(i))));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        parallelExecutor.close();
+    }
+
+    @Benchmark
+    public void onMessage() {
+        listener.onMessage(consumerRecord, () -> blackhole.consume(consumerRecord));
+    }
+
+    @Benchmark
+    public void onMessages_batchOf500() {
+        listener.onMessages(batch, () -> blackhole.consume(batch));
+    }
+
+    @Benchmark
+    public void onMessagesInParallel_batchOf500() {
+        listener.onMessagesInParallel(batch, () -> blackhole.consume(batch));
+    }
+
+    private static byte[] payload(String reservationId) {
+        return """
+                {"paymentId":"pay-001","debtorAccountnumber":"NL91ABNA0417164300",\
+                "amountReceived":499.99,"transactionDescription":"E2E1234567 %s"}""".formatted(reservationId)
+                .getBytes(StandardCharsets.UTF_8);
+    }
+}
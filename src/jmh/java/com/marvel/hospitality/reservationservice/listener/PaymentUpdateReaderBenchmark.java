@@ -0,0 +1,56 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marvel.hospitality.reservationservice.dto.PaymentUpdateEvent;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of turning a payment update record value into the fields the listener needs: the streaming
+ * {@link PaymentUpdateReader} over the record bytes, against the former path of decoding the bytes
+ * to a String and binding the whole {@link PaymentUpdateEvent}. Run with {@code -prof gc} to compare
+ * allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaymentUpdateReaderBenchmark {
+
+    private final PaymentUpdateReader reader = new PaymentUpdateReader(JsonMapper.builder().build());
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private byte[] payload;
+
+    @Setup
+    public void setUp() {
+        payload = """
+                {"paymentId":"pay-001","debtorAccountnumber":"NL91ABNA0417164300",\
+                "amountReceived":499.99,"transactionDescription":"E2E1234567 ABCD1234"}"""
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public PaymentUpdate streamingReader() {
+        return reader.read(payload);
+    }
+
+    @Benchmark
+    public PaymentUpdateEvent stringDatabind() throws Exception {
+        return objectMapper.readValue(new String(payload, StandardCharsets.UTF_8), PaymentUpdateEvent.class);
+    }
+}
@@ -0,0 +1,47 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Reservation id extraction from a transaction description: the in-place scanner used by
+ * {@link PaymentUpdateListener} against the former trim/split/regex implementation.
+ * Run with {@code -prof gc} to compare allocation per operation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationIdScanBenchmark {
+
+    private static final Pattern RESERVATION_ID_PATTERN = Pattern.compile("^[A-Z0-9]{8}$");
+
+    private String description = "E2E1234567 ABCD1234";
+
+    @Benchmark
+    public String scanner() {
+        return PaymentUpdateListener.getReservationId(description);
+    }
+
+    @Benchmark
+    public String trimSplitRegex() {
+        String[] parts = description.trim().split(" ");
+        String reservationId = parts[1].trim();
+        if (!RESERVATION_ID_PATTERN.matcher(reservationId).matches()) {
+            throw new IllegalArgumentException(reservationId);
+        }
+        return reservationId;
+    }
+}
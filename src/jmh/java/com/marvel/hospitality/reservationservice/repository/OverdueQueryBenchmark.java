@@ -0,0 +1,222 @@
+package com.marvel.hospitality.reservationservice.repository;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The overdue bank-transfer cancellation, with and without the {@code (status, payment_mode, start_date)}
+ * index, on a reservations table of {@code rows} rows of which {@code overdue} are overdue bank transfers:
+ * {@link #overdueChunk} times the selection of one 500-row chunk, {@link #cancelAllOverdue} the whole run of
+ * select-and-update chunks until nothing is left, as the scheduler does. The overdue rows are spread over the
+ * id range and put back to pending before each iteration. {@code -p orderById=true} measures the chunk query
+ * sorted by id, which has to read every remaining overdue row for each chunk.
+ * <p>
+ * The default target is a file-based H2 database under {@code target/jmh}; the generated data is
+ * kept and reused by later runs with the same {@code rows} and {@code overdue}. For PostgreSQL and 10M rows:
+ * <pre>
+ * mvn -Pjmh -DskipTests test-compile exec:exec -Djmh.args="OverdueQueryBenchmark -p rows=1000000,10000000 -p overdue=200000
+ *     -p jdbcUrl=jdbc:postgresql://localhost:5432/reservations -p user=postgres -p password=postgres"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class OverdueQueryBenchmark {
+
+    private static final String INDEX_NAME = "idx_reservations_status_mode_start";
+    private static final String OVERDUE_CHUNK = """
+            SELECT id, room_number, start_date, end_date FROM reservations
+            WHERE status = ? AND payment_mode = ? AND start_date <= ?
+            %s FETCH FIRST 500 ROWS ONLY""";
+    private static final String CANCEL = "UPDATE reservations SET status = 'CANCELLED' WHERE id = ? AND status = 'PENDING_PAYMENT'";
+    private static final String RESET_OVERDUE =
+            "UPDATE reservations SET status = 'PENDING_PAYMENT' WHERE customer_name = 'Overdue' AND status <> 'PENDING_PAYMENT'";
+
+    @Param({"1000000"})
+    private int rows;
+    @Param({"200000"})
+    private int overdue;
+    @Param({"false"})
+    private boolean orderById;
+    @Param({"false", "true"})
+    private boolean indexed;
+    @Param({"jdbc:h2:file:./target/jmh/overdue-query"})
+    private String jdbcUrl;
+    @Param({"sa"})
+    private String user;
+    @Param({""})
+    private String password;
+
+    private Connection connection;
+    private PreparedStatement overdueChunk;
+    private PreparedStatement cancel;
+    private final Date[] thresholds = new Date[8];
+    private int nextThreshold;
+
+    @Setup(Level.Trial)
+    public void prepareTable() throws SQLException {
+        connection = DriverManager.getConnection(jdbcUrl, user, password);
+        boolean postgres = connection.getMetaData().getDatabaseProductName().toLowerCase().contains("postgres");
+        try (Statement statement = connection.createStatement()) {
+            if (!hasRows(statement)) {
+                statement.execute("DROP TABLE IF EXISTS reservations");
+                statement.execute("""
+                        CREATE TABLE reservations (
+                            id VARCHAR(255) PRIMARY KEY, customer_name VARCHAR(255), room_number VARCHAR(255),
+                            start_date DATE, end_date DATE, segment VARCHAR(255), payment_mode VARCHAR(255),
+                            payment_reference VARCHAR(255), status VARCHAR(255),
+                            created_at TIMESTAMP, updated_at TIMESTAMP)""");
+                statement.execute(postgres ? postgresLoad() : h2Load());
+            }
+            statement.execute("DROP INDEX IF EXISTS " + INDEX_NAME);
+            if (indexed) {
+                statement.execute("CREATE INDEX " + INDEX_NAME + " ON reservations (status, payment_mode, start_date)");
+            }
+            statement.execute("ANALYZE");
+        }
+        connection.setAutoCommit(false);
+        overdueChunk = connection.prepareStatement(OVERDUE_CHUNK.formatted(orderById ? "ORDER BY id" : ""));
+        cancel = connection.prepareStatement(CANCEL);
+        overdueChunk.setString(1, "PENDING_PAYMENT");
+        overdueChunk.setString(2, "BANK_TRANSFER");
+        for (int i = 0; i < thresholds.length; i++) {
+            thresholds[i] = Date.valueOf(LocalDate.of(2020, 3, 15).plusDays(i));
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void resetOverdue() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.executeUpdate(RESET_OVERDUE);
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void close() throws SQLException {
+        resetOverdue();
+        connection.close();
+    }
+
+    @Benchmark
+    public int overdueChunk() throws SQLException {
+        // Rotating the threshold keeps H2 from answering repeated identical queries from its result cache.
+        overdueChunk.setDate(3, thresholds[nextThreshold++ & (thresholds.length - 1)]);
+        int found = 0;
+        try (ResultSet resultSet = overdueChunk.executeQuery()) {
+            while (resultSet.next()) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Selects and cancels chunks of 500, one transaction each, until a chunk comes back empty.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public int cancelAllOverdue() throws SQLException {
+        overdueChunk.setDate(3, thresholds[0]);
+        int cancelled = 0;
+        int selected;
+        do {
+            selected = 0;
+            try (ResultSet resultSet = overdueChunk.executeQuery()) {
+                while (resultSet.next()) {
+                    cancel.setString(1, resultSet.getString(1));
+                    cancel.addBatch();
+                    selected++;
+                }
+            }
+            if (selected > 0) {
+                for (int updated : cancel.executeBatch()) {
+                    cancelled += updated;
+                }
+            }
+            connection.commit();
+        } while (selected > 0);
+        return cancelled;
+    }
+
+    private boolean hasRows(Statement statement) {
+        try (ResultSet resultSet = statement.executeQuery(
+                "SELECT COUNT(*), COUNT(CASE WHEN customer_name = 'Overdue' THEN 1 END) FROM reservations")) {
+            resultSet.next();
+            return resultSet.getInt(1) == rows && resultSet.getInt(2) == overdue;
+        } catch (SQLException tableMissing) {
+            return false;
+        }
+    }
+
+    private String h2Load() {
+        return """
+                INSERT INTO reservations
+                SELECT LPAD(CAST(x AS VARCHAR), 8, '0'), %s, CAST(MOD(x, 500) AS VARCHAR),
+                       DATEADD('DAY', %s, DATE '2020-01-01'), DATEADD('DAY', %<s + 3, DATE '2020-01-01'),
+                       'MEDIUM', %s, NULL, %s, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+                FROM SYSTEM_RANGE(1, %d)""".formatted(customerSql(), startDaySql(), paymentModeSql(), statusSql(), rows);
+    }
+
+    private String postgresLoad() {
+        return """
+                INSERT INTO reservations
+                SELECT lpad(x::text, 8, '0'), %s, MOD(x, 500)::text,
+                       DATE '2020-01-01' + (%s)::int, DATE '2020-01-01' + (%<s + 3)::int,
+                       'MEDIUM', %s, NULL, %s, now(), now()
+                FROM generate_series(1, %d) AS x""".formatted(customerSql(), startDaySql(), paymentModeSql(), statusSql(), rows);
+    }
+
+    /**
+     * Every {@code rows / overdue}-th row is an overdue pending bank transfer starting early in 2020. The others
+     * start from 2021 on, after every threshold, and about 1% of them are pending.
+     */
+    private String overdueSql() {
+        return "MOD(x, %d) = 0".formatted(rows / overdue);
+    }
+
+    private String customerSql() {
+        return "CASE WHEN %s THEN 'Overdue' ELSE 'Customer' END".formatted(overdueSql());
+    }
+
+    private String startDaySql() {
+        return "CASE WHEN %s THEN MOD(x, 60) ELSE 366 + MOD(x, 3650) END".formatted(overdueSql());
+    }
+
+    private String paymentModeSql() {
+        return "CASE WHEN %s THEN 'BANK_TRANSFER' WHEN MOD(x, 3) = 0 THEN 'BANK_TRANSFER' WHEN MOD(x, 3) = 1 THEN 'CASH' ELSE 'CREDIT_CARD' END"
+                .formatted(overdueSql());
+    }
+
+    private String statusSql() {
+        return "CASE WHEN %s OR MOD(x, 100) = 0 THEN 'PENDING_PAYMENT' WHEN MOD(x, 10) = 1 THEN 'CANCELLED' ELSE 'CONFIRMED' END"
+                .formatted(overdueSql());
+    }
+}
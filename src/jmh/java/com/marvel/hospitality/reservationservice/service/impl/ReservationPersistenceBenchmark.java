@@ -0,0 +1,109 @@
+package com.marvel.hospitality.reservationservice.service.impl;
+
+import com.marvel.hospitality.reservationservice.RoomReservationServiceApplication;
+import com.marvel.hospitality.reservationservice.availability.RoomAvailabilityIndex;
+import com.marvel.hospitality.reservationservice.dto.BatchReservationResponse;
+import com.marvel.hospitality.reservationservice.dto.ReservationRequest;
+import com.marvel.hospitality.reservationservice.model.BatchMode;
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
+import com.marvel.hospitality.reservationservice.model.RoomSegment;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import com.marvel.hospitality.reservationservice.service.ReservationService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persisting {@code batchSize} cash reservations one request at a time against a single
+ * {@code POST /reservations/batch} call, on the real service, JPA and H2 stack (no web layer).
+ * Each operation books rooms that were never used before; the table and the availability index
+ * are emptied between iterations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReservationPersistenceBenchmark {
+
+    @Param({"50"})
+    private int batchSize;
+
+    private ConfigurableApplicationContext context;
+    private ReservationService service;
+    private ReservationRepository repository;
+    private RoomAvailabilityIndex availabilityIndex;
+    private long nextRoom;
+
+    private final LocalDate start = LocalDate.now().plusDays(30);
+    private final LocalDate end = start.plusDays(2);
+
+    @Setup(Level.Trial)
+    public void startApplication() {
+        context = new SpringApplicationBuilder(RoomReservationServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .properties(
+                        "spring.main.banner-mode=off",
+                        "logging.level.root=WARN",
+                        "spring.datasource.url=jdbc:h2:mem:jmh-persistence;DB_CLOSE_DELAY=-1",
+                        "spring.jpa.hibernate.ddl-auto=create-drop",
+                        "reservation.id.node-id=0",
+                        "app.kafka.payment-update.listener-mode=none")
+                .run();
+        service = context.getBean(ReservationService.class);
+        repository = context.getBean(ReservationRepository.class);
+        availabilityIndex = context.getBean(RoomAvailabilityIndex.class);
+    }
+
+    @Setup(Level.Iteration)
+    public void clearReservations() {
+        repository.deleteAllInBatch();
+        availabilityIndex.reload();
+    }
+
+    @TearDown(Level.Trial)
+    public void stopApplication() {
+        context.close();
+    }
+
+    @Benchmark
+    public void singleInserts(Blackhole blackhole) {
+        for (ReservationRequest request : nextRequests()) {
+            blackhole.consume(service.createReservation(request));
+        }
+    }
+
+    @Benchmark
+    public BatchReservationResponse batchInsert() {
+        return service.createReservations(nextRequests(), BatchMode.ALL_OR_NOTHING);
+    }
+
+    private List<ReservationRequest> nextRequests() {
+        List<ReservationRequest> requests = new ArrayList<>(batchSize);
+        for (int i = 0; i < batchSize; i++) {
+            requests.add(new ReservationRequest("John Doe", Long.toString(nextRoom++, 36), start, end,
+                    RoomSegment.MEDIUM, PaymentMode.CASH, null));
+        }
+        return requests;
+    }
+}
@@ -0,0 +1,112 @@
+package com.marvel.hospitality.reservationservice.service.impl;
+
+import com.marvel.hospitality.reservationservice.BenchmarkSupport;
+import com.marvel.hospitality.reservationservice.availability.RoomAvailabilityIndex;
+import com.marvel.hospitality.reservationservice.availability.RoomBookings;
+import com.marvel.hospitality.reservationservice.availability.RoomLockStripes;
+import com.marvel.hospitality.reservationservice.client.CachingPaymentVerifier;
+import com.marvel.hospitality.reservationservice.client.CreditCardClient;
+import com.marvel.hospitality.reservationservice.dto.PaymentStatusResponse;
+import com.marvel.hospitality.reservationservice.dto.ReservationRequest;
+import com.marvel.hospitality.reservationservice.dto.ReservationResponse;
+import com.marvel.hospitality.reservationservice.model.PaymentConfirmationStatus;
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
+import com.marvel.hospitality.reservationservice.model.RoomSegment;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ReservationServiceImpl#createReservation} with an in-memory repository and a credit-card
+ * client that answers immediately, so only the service logic (validation, availability index,
+ * payment handling) is measured. Each booking is released again so the index does not fill up.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationServiceBenchmark {
+
+    private static final int ROOMS = 1024;
+    private static final PaymentStatusResponse CONFIRMED = new PaymentStatusResponse(null, PaymentConfirmationStatus.CONFIRMED);
+
+    private ReservationServiceImpl service;
+    private RoomAvailabilityIndex availabilityIndex;
+    private ReservationRequest[] cashRequests;
+    private ReservationRequest[] cardRequests;
+    private int next;
+
+    private final LocalDate start = LocalDate.now().plusDays(10);
+    private final LocalDate end = start.plusDays(3);
+
+    @Setup
+    public void setUp() {
+        BenchmarkSupport.quietLogging();
+        ReservationRepository repository = BenchmarkSupport.inMemoryRepository();
+        availabilityIndex = new RoomAvailabilityIndex(repository, new RoomLockStripes(64, new SimpleMeterRegistry()));
+        CreditCardClient creditCardClient = new CreditCardClient(null, null, null, null) {
+            @Override
+            public PaymentStatusResponse verifyPayment(String reference) {
+                return CONFIRMED;
+            }
+        };
+        CachingPaymentVerifier paymentVerifier = new CachingPaymentVerifier(
+                creditCardClient, Duration.ofMinutes(1), 10_000, new SimpleMeterRegistry());
+        // payment-update deduplication and the reservation cache are not on the booking path measured here
+        RoomBookings roomBookings = new RoomBookings(
+                repository, BenchmarkSupport.inMemoryRoomLocks(), BenchmarkSupport.noTransactions());
+        service = new ReservationServiceImpl(repository, paymentVerifier, availabilityIndex, roomBookings, null, null,
+                new SimpleMeterRegistry());
+
+        cashRequests = new ReservationRequest[ROOMS];
+        cardRequests = new ReservationRequest[ROOMS];
+        for (int i = 0; i < ROOMS; i++) {
+            String room = "R" + i;
+            cashRequests[i] = new ReservationRequest("John Doe", room, start, end, RoomSegment.MEDIUM, PaymentMode.CASH, null);
+            cardRequests[i] = new ReservationRequest("John Doe", room, start, end, RoomSegment.MEDIUM,
+                    PaymentMode.CREDIT_CARD, "PAYREF-" + i);
+        }
+    }
+
+    @Benchmark
+    public ReservationResponse createReservation_cash() {
+        return book(cashRequests[nextRoom()]);
+    }
+
+    @Benchmark
+    public ReservationResponse createReservation_creditCard() {
+        return book(cardRequests[nextRoom()]);
+    }
+
+    @Benchmark
+    public LocalDate validateDates() {
+        ReservationServiceImpl.validateDates(start, end);
+        return end;
+    }
+
+    private ReservationResponse book(ReservationRequest request) {
+        ReservationResponse response = service.createReservation(request);
+        availabilityIndex.release(request.roomNumber(), request.startDate(), request.endDate());
+        return response;
+    }
+
+    private int nextRoom() {
+        next = (next + 1) & (ROOMS - 1);
+        return next;
+    }
+}
@@ -0,0 +1,149 @@
+package com.marvel.hospitality.reservationservice.availability;
+
+
+import com.marvel.hospitality.reservationservice.dto.RoomStay;
+import com.marvel.hospitality.reservationservice.exception.RoomUnavailableException;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+import static com.marvel.hospitality.reservationservice.model.ReservationStatus.CANCELLED;
+
+
+/**
+ * In-memory view of which room nights are booked, so that most overlapping reservations are
+ * rejected without querying the reservations table. It is a pre-check only: other instances book
+ * and cancel without telling this one, so {@link RoomBookings} re-checks every stay against the
+ * table when it is saved, and a stay this index thinks is taken is re-read from the table before
+ * it is refused. Nights before the index origin (the day the index was last loaded) are in the
+ * past and never tracked. Every calendar read or write happens under the room's
+ * {@link RoomLockStripes} lock, so bookings for one room are serialized; other rooms proceed in
+ * parallel unless they hash to the same stripe.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RoomAvailabilityIndex {
+
+    private final ReservationRepository repository;
+    private final RoomLockStripes roomLocks;
+    private final ConcurrentMap<String, RoomCalendar> calendars = new ConcurrentHashMap<>();
+    private volatile long originEpochDay = LocalDate.now().toEpochDay();
+
+    /**
+     * Rebuilds the index from every non-cancelled reservation that has not ended yet.
+     * Bookings made while the reload is running may be missed, so this is meant for startup.
+     */
+    @PostConstruct
+    public void reload() {
+        LocalDate today = LocalDate.now();
+        calendars.clear();
+        originEpochDay = today.toEpochDay();
+
+        List<RoomStay> stays = repository.findStaysEndingAfter(CANCELLED, today);
+        int loaded = 0;
+        for (RoomStay stay : stays) {
+            if (stay.roomNumber() == null || stay.startDate() == null || stay.endDate() == null) {
+                continue;
+            }
+            int from = offset(stay.startDate());
+            int to = offset(stay.endDate());
+            if (from < to) {
+                roomLocks.withLock(stay.roomNumber(), () -> calendar(stay.roomNumber()).book(from, to));
+                loaded++;
+            }
+        }
+        log.info("Room availability index loaded {} stays across {} rooms", loaded, calendars.size());
+    }
+
+    /**
+     * Answers from memory, so a stay booked or cancelled on another instance may be reported wrongly.
+     */
+    public boolean isAvailable(String roomNumber, LocalDate startDate, LocalDate endDate) {
+        int from = offset(startDate);
+        int to = offset(endDate);
+        if (from >= to) {
+            return true;
+        }
+        RoomCalendar calendar = calendars.get(roomNumber);
+        return calendar == null || roomLocks.withLock(roomNumber, () -> calendar.isFree(from, to));
+    }
+
+    /**
+     * Atomically checks that the room is free for [startDate, endDate) and holds those nights until the
+     * stay is {@link #settle settled} or {@link #release released}. When the nights look taken, the room
+     * is reloaded from the reservations table first, so a stay cancelled on another instance does not
+     * keep it blocked here.
+     *
+     * @throws RoomUnavailableException if any night of the stay is booked or held
+     */
+    public void reserve(String roomNumber, LocalDate startDate, LocalDate endDate) {
+        int from = offset(startDate);
+        int to = offset(endDate);
+        if (from >= to) {
+            return;
+        }
+        RoomCalendar calendar = calendar(roomNumber);
+        if (roomLocks.withLock(roomNumber, () -> calendar.tryBook(from, to))) {
+            return;
+        }
+        BitSet stored = storedNights(roomNumber);
+        if (!roomLocks.withLock(roomNumber, () -> {
+            calendar.resetTo(stored);
+            return calendar.tryBook(from, to);
+        })) {
+            throw RoomUnavailableException.booked(roomNumber, startDate, endDate);
+        }
+    }
+
+    /**
+     * Ends the hold taken by {@link #reserve} once the stay is saved; the nights stay booked.
+     */
+    public void settle(String roomNumber, LocalDate startDate, LocalDate endDate) {
+        int from = offset(startDate);
+        int to = offset(endDate);
+        RoomCalendar calendar = calendars.get(roomNumber);
+        if (calendar != null && from < to) {
+            roomLocks.withLock(roomNumber, () -> calendar.settle(from, to));
+        }
+    }
+
+    public void release(String roomNumber, LocalDate startDate, LocalDate endDate) {
+        int from = offset(startDate);
+        int to = offset(endDate);
+        RoomCalendar calendar = calendars.get(roomNumber);
+        if (calendar != null && from < to) {
+            roomLocks.withLock(roomNumber, () -> calendar.release(from, to));
+        }
+    }
+
+    private BitSet storedNights(String roomNumber) {
+        BitSet nights = new BitSet();
+        for (RoomStay stay : repository.findRoomStaysEndingAfter(roomNumber, CANCELLED, LocalDate.now())) {
+            int from = offset(stay.startDate());
+            int to = offset(stay.endDate());
+            if (from < to) {
+                nights.set(from, to);
+            }
+        }
+        return nights;
+    }
+
+    private RoomCalendar calendar(String roomNumber) {
+        return calendars.computeIfAbsent(roomNumber, room -> new RoomCalendar());
+    }
+
+    private int offset(LocalDate date) {
+        return Math.toIntExact(Math.max(0L, date.toEpochDay() - originEpochDay));
+    }
+}
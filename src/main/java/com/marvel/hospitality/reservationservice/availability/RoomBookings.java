@@ -0,0 +1,121 @@
+package com.marvel.hospitality.reservationservice.availability;
+
+
+import com.marvel.hospitality.reservationservice.entity.Reservation;
+import com.marvel.hospitality.reservationservice.entity.RoomLock;
+import com.marvel.hospitality.reservationservice.exception.RoomUnavailableException;
+import com.marvel.hospitality.reservationservice.model.BatchMode;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import com.marvel.hospitality.reservationservice.repository.RoomLockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import static com.marvel.hospitality.reservationservice.model.ReservationStatus.CANCELLED;
+import static java.util.stream.Collectors.toCollection;
+
+
+/**
+ * Saves reservations after checking them against the reservations table, which is the authority on
+ * double bookings across instances; {@link RoomAvailabilityIndex} only knows what this instance did.
+ * The save transaction first locks the {@link RoomLock} row of each room, in room order, so that the
+ * overlap check and the insert of one room never interleave with another instance's; the check itself
+ * reads the {@code (room_number, start_date, end_date)} index. The transaction is short: payments are
+ * verified before it starts.
+ * <p>
+ * Called outside any transaction. A room booked for the first time has no lock row yet: the transaction
+ * then ends without writing, the row is inserted on its own and the save runs again, so a booking never
+ * holds two connections at once.
+ */
+@Slf4j
+@Component
+public class RoomBookings {
+
+    private final ReservationRepository reservationRepository;
+    private final RoomLockRepository roomLockRepository;
+    private final TransactionTemplate transaction;
+
+    public RoomBookings(ReservationRepository reservationRepository, RoomLockRepository roomLockRepository,
+                        PlatformTransactionManager transactionManager) {
+        this.reservationRepository = reservationRepository;
+        this.roomLockRepository = roomLockRepository;
+        this.transaction = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * @throws RoomUnavailableException if a stored reservation shares a night with this one
+     */
+    public Reservation save(Reservation reservation) {
+        saveAll(List.of(reservation), BatchMode.ALL_OR_NOTHING);
+        return reservation;
+    }
+
+    /**
+     * Saves the reservations that share no night with a stored one and returns the others, unsaved.
+     * The given reservations are not checked against each other; the availability index keeps them apart.
+     *
+     * @throws RoomUnavailableException in {@link BatchMode#ALL_OR_NOTHING} mode if any of them overlaps,
+     *                                  in which case none is saved
+     */
+    public List<Reservation> saveAll(List<Reservation> reservations, BatchMode mode) {
+        SortedSet<String> rooms = reservations.stream().map(Reservation::getRoomNumber)
+                .collect(toCollection(TreeSet::new));
+        List<Reservation> taken = transaction.execute(status -> lockAndSave(rooms, reservations, mode));
+        if (taken == null) {
+            rooms.forEach(this::createLockRow);
+            taken = transaction.execute(status -> lockAndSave(rooms, reservations, mode));
+            if (taken == null) {
+                throw new IllegalStateException("Room locks could not be created for " + rooms);
+            }
+        }
+        return taken;
+    }
+
+    /**
+     * @return the reservations not saved, or null, before anything is written, if a room has no lock row
+     */
+    private List<Reservation> lockAndSave(SortedSet<String> rooms, List<Reservation> reservations, BatchMode mode) {
+        for (String roomNumber : rooms) {
+            if (roomLockRepository.lock(roomNumber).isEmpty()) {
+                return null;
+            }
+        }
+        List<Reservation> free = new ArrayList<>(reservations.size());
+        List<Reservation> taken = new ArrayList<>();
+        for (Reservation reservation : reservations) {
+            if (!reservationRepository.existsOverlapping(reservation.getRoomNumber(),
+                    reservation.getStartDate(), reservation.getEndDate(), CANCELLED)) {
+                free.add(reservation);
+            } else if (mode == BatchMode.ALL_OR_NOTHING) {
+                throw RoomUnavailableException.booked(
+                        reservation.getRoomNumber(), reservation.getStartDate(), reservation.getEndDate());
+            } else {
+                taken.add(reservation);
+            }
+        }
+        reservationRepository.saveAll(free);
+        if (!taken.isEmpty()) {
+            log.warn("{} reservations overlap stored ones and were not saved", taken.size());
+        }
+        return taken;
+    }
+
+    private void createLockRow(String roomNumber) {
+        if (roomLockRepository.existsById(roomNumber)) {
+            return;
+        }
+        try {
+            roomLockRepository.saveAndFlush(new RoomLock(roomNumber));
+        } catch (DataIntegrityViolationException createdConcurrently) {
+            log.debug("Room lock {} was created by another transaction", roomNumber);
+        }
+    }
+}
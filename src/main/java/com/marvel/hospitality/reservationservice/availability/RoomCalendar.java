@@ -0,0 +1,53 @@
+package com.marvel.hospitality.reservationservice.availability;
+
+
+import java.util.BitSet;
+
+
+/**
+ * Booked nights of a single room, one bit per night counted from the index origin.
+ * A stay [from, to) occupies the nights from, from + 1, ..., to - 1.
+ * Nights booked through {@link #tryBook} are also held until {@link #settle}d, i.e. until the stay
+ * is in the reservations table, so that a {@link #resetTo reset} from the table keeps them.
+ * Not thread-safe: callers hold the room's {@link RoomLockStripes} lock.
+ */
+class RoomCalendar {
+
+    private BitSet nights = new BitSet();
+    private final BitSet held = new BitSet();
+
+    boolean isFree(int from, int to) {
+        int firstBooked = nights.nextSetBit(from);
+        return firstBooked < 0 || firstBooked >= to;
+    }
+
+    boolean tryBook(int from, int to) {
+        if (!isFree(from, to)) {
+            return false;
+        }
+        nights.set(from, to);
+        held.set(from, to);
+        return true;
+    }
+
+    void book(int from, int to) {
+        nights.set(from, to);
+    }
+
+    void settle(int from, int to) {
+        held.clear(from, to);
+    }
+
+    void release(int from, int to) {
+        nights.clear(from, to);
+        held.clear(from, to);
+    }
+
+    /**
+     * Replaces the booked nights with the given ones, plus the nights still held.
+     */
+    void resetTo(BitSet stored) {
+        nights = (BitSet) stored.clone();
+        nights.or(held);
+    }
+}
@@ -0,0 +1,75 @@
+package com.marvel.hospitality.reservationservice.availability;
+
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+
+/**
+ * Fixed array of locks hashed by room number. Work on the same room is serialized, and rooms that
+ * hash to different stripes never wait on each other; rooms that share a stripe do contend, which
+ * {@code reservation.room.lock.contended} makes visible. The stripe count is rounded up to a power of
+ * two; more stripes mean fewer rooms sharing a lock by accident.
+ */
+@Component
+public class RoomLockStripes {
+
+    private final ReentrantLock[] locks;
+    private final int mask;
+    private final Counter acquisitions;
+    private final Counter contended;
+
+    public RoomLockStripes(@Value("${reservation.room-locks.stripes:64}") int stripes, MeterRegistry meterRegistry) {
+        if (stripes < 1) {
+            throw new IllegalArgumentException("reservation.room-locks.stripes must be positive");
+        }
+        int size = stripes == 1 ? 1 : Integer.highestOneBit(stripes - 1) << 1;
+        this.locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.acquisitions = Counter.builder("reservation.room.lock.acquisitions")
+                .description("Room lock acquisitions")
+                .register(meterRegistry);
+        this.contended = Counter.builder("reservation.room.lock.contended")
+                .description("Room lock acquisitions that had to wait for another holder")
+                .register(meterRegistry);
+    }
+
+    public <T> T withLock(String roomNumber, Supplier<T> action) {
+        ReentrantLock lock = locks[stripeOf(roomNumber)];
+        if (!lock.tryLock()) {
+            contended.increment();
+            lock.lock();
+        }
+        acquisitions.increment();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void withLock(String roomNumber, Runnable action) {
+        withLock(roomNumber, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    int stripeOf(String roomNumber) {
+        int h = roomNumber.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    int stripeCount() {
+        return locks.length;
+    }
+}
@@ -0,0 +1,116 @@
+package com.marvel.hospitality.reservationservice.cache;
+
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.Function;
+
+
+/**
+ * Bounded LRU of {@link ReservationView}s by reservation id, in front of the lookups by id. Every status
+ * change must go through {@link #evictAfterCommit}, which drops the entries once the change is committed.
+ * <p>
+ * A lookup that reads the row while an update is committing could otherwise put the old status back after
+ * the eviction. Each eviction therefore bumps a counter for the id's stripe, and a loaded view is only kept
+ * if that counter did not move while it was being read.
+ * <p>
+ * Evictions are local: a status change committed by another instance (say, the Kafka confirmation landing on
+ * the partition owner) is only seen here once the entry expires, so the short TTL is the staleness bound across
+ * instances. Published as the {@code cache.*} metrics of the {@code reservations} cache, plus
+ * {@code cache.hit.ratio}.
+ */
+@Component
+public class ReservationCache {
+
+    static final String CACHE_NAME = "reservations";
+    private static final int STRIPES = 256;
+
+    private final Cache<String, ReservationView> views;
+    private final AtomicLongArray evictions = new AtomicLongArray(STRIPES);
+
+    public ReservationCache(@Value("${reservation.cache.max-size:10000}") long maxSize,
+                            @Value("${reservation.cache.ttl:5s}") Duration ttl,
+                            MeterRegistry meterRegistry) {
+        this.views = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, views, CACHE_NAME);
+        Gauge.builder("cache.hit.ratio", views, cache -> cache.stats().hitRate())
+                .description("Share of reservation lookups answered from memory")
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return the cached view, or the one read by {@code loader}; a missing reservation is not cached
+     */
+    public Optional<ReservationView> get(String reservationId, Function<String, Optional<ReservationView>> loader) {
+        ReservationView cached = views.getIfPresent(reservationId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        int stripe = stripeOf(reservationId);
+        long before = evictions.get(stripe);
+        Optional<ReservationView> loaded = loader.apply(reservationId);
+        loaded.ifPresent(view -> {
+            views.put(reservationId, view);
+            if (evictions.get(stripe) != before) {
+                views.invalidate(reservationId);
+            }
+        });
+        return loaded;
+    }
+
+    public void evictAfterCommit(String reservationId) {
+        evictAfterCommit(List.of(reservationId));
+    }
+
+    /**
+     * Evicts the given reservations once the current transaction commits, or right away outside one.
+     */
+    public void evictAfterCommit(Collection<String> reservationIds) {
+        if (reservationIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = List.copyOf(reservationIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(ids);
+                }
+            });
+        } else {
+            evict(ids);
+        }
+    }
+
+    private void evict(List<String> ids) {
+        for (String id : ids) {
+            evictions.incrementAndGet(stripeOf(id));
+            views.invalidate(id);
+        }
+    }
+
+    private static int stripeOf(String reservationId) {
+        int h = reservationId.hashCode();
+        return (h ^ (h >>> 16)) & (STRIPES - 1);
+    }
+}
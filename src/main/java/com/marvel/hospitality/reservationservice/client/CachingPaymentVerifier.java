@@ -0,0 +1,148 @@
+package com.marvel.hospitality.reservationservice.client;
+
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marvel.hospitality.reservationservice.dto.PaymentStatusResponse;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * Remembers the final outcome (CONFIRMED or REJECTED) of recent card verifications by payment
+ * reference, so a client retrying the same booking does not trigger another remote call.
+ * Only successful responses with a status are stored; errors always go back to the
+ * {@link CreditCardClient} on the next attempt. Hits, misses and evictions are published as
+ * the {@code cache.*} metrics of the {@code payment-verifications} cache.
+ * <p>
+ * Concurrent verifications of the same reference are coalesced: the first caller sends the
+ * request and every caller arriving while it is in flight waits for that same result (or error)
+ * instead of sending its own. This matters most while the creditCard circuit breaker is
+ * half-open and only lets a few calls through.
+ */
+@Component
+public class CachingPaymentVerifier {
+
+    static final String CACHE_NAME = "payment-verifications";
+
+    private final CreditCardClient creditCardClient;
+    private final Cache<String, PaymentStatusResponse> outcomes;
+    private final ConcurrentMap<String, CompletableFuture<PaymentStatusResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Counter coalesced;
+
+    public CachingPaymentVerifier(CreditCardClient creditCardClient,
+                                  @Value("${credit-card-service.cache.ttl:60s}") Duration ttl,
+                                  @Value("${credit-card-service.cache.max-size:10000}") long maxSize,
+                                  MeterRegistry meterRegistry) {
+        this.creditCardClient = creditCardClient;
+        this.outcomes = Caffeine.newBuilder()
+                .expireAfterWrite(ttl)
+                .maximumSize(maxSize)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, outcomes, CACHE_NAME);
+        this.coalesced = Counter.builder("payment.verification.coalesced")
+                .description("Payment verifications that joined an identical request already in flight")
+                .register(meterRegistry);
+    }
+
+    public PaymentStatusResponse verifyPayment(String reference) {
+        PaymentStatusResponse cached = outcomes.getIfPresent(reference);
+        if (cached != null) {
+            return cached;
+        }
+        CompletableFuture<PaymentStatusResponse> call = new CompletableFuture<>();
+        CompletableFuture<PaymentStatusResponse> existing = inFlight.putIfAbsent(reference, call);
+        if (existing != null) {
+            coalesced.increment();
+            return await(existing);
+        }
+        try {
+            PaymentStatusResponse response = remember(reference, creditCardClient.verifyPayment(reference));
+            call.complete(response);
+            return response;
+        } catch (Throwable e) {
+            // errors too, or the callers coalesced onto this call would wait forever
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(reference, call);
+        }
+    }
+
+    public CompletableFuture<PaymentStatusResponse> verifyPaymentAsync(String reference) {
+        PaymentStatusResponse cached = outcomes.getIfPresent(reference);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<PaymentStatusResponse> call = new CompletableFuture<>();
+        CompletableFuture<PaymentStatusResponse> existing = inFlight.putIfAbsent(reference, call);
+        if (existing != null) {
+            coalesced.increment();
+            return existing.copy();
+        }
+        CompletableFuture<PaymentStatusResponse> request;
+        try {
+            request = creditCardClient.verifyPaymentAsync(reference);
+        } catch (Throwable e) {
+            inFlight.remove(reference, call);
+            call.completeExceptionally(e);
+            if (e instanceof Error error) {
+                throw error;
+            }
+            return call.copy();
+        }
+        request.whenComplete((response, error) -> {
+            if (error == null) {
+                remember(reference, response);
+            }
+            inFlight.remove(reference, call);
+            if (error != null) {
+                call.completeExceptionally(unwrap(error));
+            } else {
+                call.complete(response);
+            }
+        });
+        return call.copy();
+    }
+
+    private PaymentStatusResponse remember(String reference, PaymentStatusResponse response) {
+        if (response != null && response.status() != null) {
+            outcomes.put(reference, response);
+        }
+        return response;
+    }
+
+
+    private static PaymentStatusResponse await(CompletableFuture<PaymentStatusResponse> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    void cleanUp() {
+        outcomes.cleanUp();
+    }
+}
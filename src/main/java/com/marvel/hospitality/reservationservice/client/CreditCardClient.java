@@ -2,20 +2,33 @@ package com.marvel.hospitality.reservationservice.client;
 
 import com.marvel.hospitality.reservationservice.dto.PaymentStatusRequest;
 import com.marvel.hospitality.reservationservice.dto.PaymentStatusResponse;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClient;
 
+import java.util.Locale;
+
+import java.util.concurrent.CompletableFuture;
+
 @Component
 @RequiredArgsConstructor
 public class CreditCardClient {
 
     public static final String PAYMENT_STATUS_PATH = "/payment-status";
     private final RestClient restClient;
+    private final PaymentVerificationExecutor verificationExecutor;
+    private final MeterRegistry meterRegistry;
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
 
     @Value("${credit-card-service.url}")
     @Getter
@@ -24,10 +37,49 @@ public class CreditCardClient {
     @Retry(name = "creditCard")
     @CircuitBreaker(name = "creditCard")
     public PaymentStatusResponse verifyPayment(String reference) {
-        return restClient.post()
-                .uri(creditCardUrl + PAYMENT_STATUS_PATH)
-                .body(new PaymentStatusRequest(reference))
-                .retrieve()
-                .body(PaymentStatusResponse.class);
+        return requestPaymentStatus(reference);
+    }
+
+    /**
+     * Non-blocking variant of {@link #verifyPayment(String)} for fanning out many verifications.
+     * The call runs on a virtual thread, bounded by {@code credit-card-service.async.max-concurrency},
+     * and goes through the same creditCard retry and circuit breaker, which complete the returned
+     * future with the outcome of the last attempt.
+     */
+    @Retry(name = "creditCard")
+    @CircuitBreaker(name = "creditCard")
+    public CompletableFuture<PaymentStatusResponse> verifyPaymentAsync(String reference) {
+        return verificationExecutor.submit(() -> requestPaymentStatus(reference));
+    }
+
+    /**
+     * One HTTP attempt, timed in {@code payment.verification.request} with its {@code outcome} and the
+     * {@code circuit} state it was let through in. Each retry is a sample of its own, so the count of
+     * this timer against {@code resilience4j.retry.calls} gives the attempts per verification.
+     */
+    private PaymentStatusResponse requestPaymentStatus(String reference) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            PaymentStatusResponse response = restClient.post()
+                    .uri(creditCardUrl + PAYMENT_STATUS_PATH)
+                    .body(new PaymentStatusRequest(reference))
+                    .retrieve()
+                    .body(PaymentStatusResponse.class);
+            outcome = "success";
+            return response;
+        } catch (HttpClientErrorException e) {
+            outcome = "client_error";
+            throw e;
+        } catch (HttpServerErrorException e) {
+            outcome = "server_error";
+            throw e;
+        } catch (ResourceAccessException e) {
+            outcome = "io_error";
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("payment.verification.request", "outcome", outcome,
+                    "circuit", circuitBreakerRegistry.circuitBreaker("creditCard").getState().name().toLowerCase(Locale.ROOT)));
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,45 @@
+package com.marvel.hospitality.reservationservice.client;
+
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Supplier;
+
+
+/**
+ * Runs blocking payment verifications on virtual threads, with at most {@code maxConcurrency}
+ * of them in flight. Extra tasks park their virtual thread until a permit frees up, so callers
+ * can fan out any number of verifications without flooding the credit-card service.
+ */
+public class PaymentVerificationExecutor implements AutoCloseable {
+
+    private final ExecutorService virtualThreads;
+    private final Semaphore permits;
+
+    public PaymentVerificationExecutor(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.virtualThreads = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("payment-verification-", 0).factory());
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    public <T> CompletableFuture<T> submit(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            permits.acquireUninterruptibly();
+            try {
+                return task.get();
+            } finally {
+                permits.release();
+            }
+        }, virtualThreads);
+    }
+
+    @Override
+    public void close() {
+        virtualThreads.shutdown();
+    }
+}
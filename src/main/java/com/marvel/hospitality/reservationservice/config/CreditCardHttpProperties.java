@@ -0,0 +1,31 @@
+package com.marvel.hospitality.reservationservice.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * Connection pool and timeouts of the HTTP client used for the credit-card service
+ * ({@code credit-card-service.http.*}).
+ *
+ * @param maxConnTotal             connections across all routes
+ * @param maxConnPerRoute          connections to the credit-card service, the only route in practice
+ * @param connectTimeout           TCP connect timeout
+ * @param socketTimeout            read timeout on an established connection
+ * @param connectionRequestTimeout how long a caller waits for a pooled connection before failing
+ * @param keepAlive                how long an idle connection may be reused when the server sends no Keep-Alive header
+ * @param idleEviction             idle connections older than this are closed by a background evictor
+ * @param connectionTtl            connections are never reused past this age, so DNS and load-balancer changes are picked up
+ */
+@ConfigurationProperties("credit-card-service.http")
+public record CreditCardHttpProperties(
+        @DefaultValue("50") int maxConnTotal,
+        @DefaultValue("20") int maxConnPerRoute,
+        @DefaultValue("2s") Duration connectTimeout,
+        @DefaultValue("5s") Duration socketTimeout,
+        @DefaultValue("1s") Duration connectionRequestTimeout,
+        @DefaultValue("30s") Duration keepAlive,
+        @DefaultValue("30s") Duration idleEviction,
+        @DefaultValue("5m") Duration connectionTtl) {
+}
@@ -1,9 +1,12 @@
 package com.marvel.hospitality.reservationservice.config;
 
 import com.marvel.hospitality.reservationservice.exception.IllegalPaymentUpdateMessageFormatException;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.apache.kafka.clients.admin.NewTopic;
 import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
 import org.apache.kafka.common.serialization.StringDeserializer;
 import org.apache.kafka.common.serialization.StringSerializer;
 import org.springframework.beans.factory.annotation.Value;
@@ -12,9 +15,12 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
 import org.springframework.kafka.core.*;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.listener.ConsumerRecordRecoverer;
 import org.springframework.kafka.listener.ContainerProperties;
 import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
 import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
 import org.springframework.util.backoff.FixedBackOff;
 
 import java.util.HashMap;
@@ -31,33 +37,90 @@ public class KafkaConfig {
     private int concurrency;
     @Value("${spring.kafka.topic.payment-update}")
     private String paymentUpdateTopic;
+    @Value("${spring.kafka.consumer.max-poll-records:500}")
+    private int maxPollRecords;
 
-   @Bean
-    public ConsumerFactory<String, String> consumerFactory() {
+    /**
+     * Payment updates are consumed as raw bytes and parsed by
+     * {@link com.marvel.hospitality.reservationservice.listener.PaymentUpdateReader}, which avoids
+     * decoding every payload into an intermediate String first. The consumer's own metrics, including
+     * per-partition {@code kafka.consumer.fetch.manager.records.lag} and the consumed-records rate, are
+     * bound to Micrometer.
+     */
+    @Bean
+    public ConsumerFactory<String, byte[]> consumerFactory(MeterRegistry meterRegistry) {
         Map<String, Object> props = new HashMap<>();
         props.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
         props.put(ConsumerConfig.GROUP_ID_CONFIG, groupId);
         props.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
-        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        props.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
         props.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
         props.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
-        return new DefaultKafkaConsumerFactory<>(props);
+        props.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        DefaultKafkaConsumerFactory<String, byte[]> consumerFactory = new DefaultKafkaConsumerFactory<>(props);
+        consumerFactory.addListener(new MicrometerConsumerListener<>(meterRegistry));
+        return consumerFactory;
     }
 
     @Bean
-    public ConcurrentKafkaListenerContainerFactory<String, String> kafkaListenerContainerFactory(
-            ConsumerFactory<String, String> consumerFactory, KafkaTemplate<String, String> template) {
-        ConcurrentKafkaListenerContainerFactory<String, String> factory = new ConcurrentKafkaListenerContainerFactory<>();
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> kafkaListenerContainerFactory(
+            ConsumerFactory<String, byte[]> consumerFactory, KafkaTemplate<String, byte[]> deadLetterTemplate,
+            MeterRegistry meterRegistry) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
         factory.setConsumerFactory(consumerFactory);
         factory.setConcurrency(concurrency);
         factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL_IMMEDIATE);
+        factory.setCommonErrorHandler(deadLetterErrorHandler(deadLetterTemplate, meterRegistry));
+        return factory;
+    }
+
+    /**
+     * Hands the listener a whole poll at a time (used when app.kafka.payment-update.listener-mode=batch).
+     * Offsets are committed once per batch; a listener that throws {@link BatchListenerFailedException}
+     * gets the records before the failed index committed, the failed record sent to the DLT and the
+     * rest redelivered.
+     */
+    @Bean
+    public ConcurrentKafkaListenerContainerFactory<String, byte[]> batchKafkaListenerContainerFactory(
+            ConsumerFactory<String, byte[]> consumerFactory, KafkaTemplate<String, byte[]> deadLetterTemplate,
+            MeterRegistry meterRegistry) {
+        ConcurrentKafkaListenerContainerFactory<String, byte[]> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        factory.setConsumerFactory(consumerFactory);
+        factory.setConcurrency(concurrency);
+        factory.setBatchListener(true);
+        factory.getContainerProperties().setAckMode(ContainerProperties.AckMode.MANUAL);
+        factory.setCommonErrorHandler(deadLetterErrorHandler(deadLetterTemplate, meterRegistry));
+        return factory;
+    }
 
-        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(template);
+    /**
+     * Records published to the DLT are counted in {@code payment.update.dlt.published}, tagged with the
+     * exception that sent them there.
+     */
+    private static DefaultErrorHandler deadLetterErrorHandler(KafkaTemplate<String, byte[]> template,
+                                                              MeterRegistry meterRegistry) {
+        DeadLetterPublishingRecoverer deadLetterPublisher = new DeadLetterPublishingRecoverer(template);
+        ConsumerRecordRecoverer recoverer = (consumerRecord, e) -> {
+            deadLetterPublisher.accept(consumerRecord, e);
+            meterRegistry.counter("payment.update.dlt.published",
+                    "exception", listenerCause(e).getClass().getSimpleName()).increment();
+        };
         FixedBackOff backOff = new FixedBackOff(1000L, 2L);
         DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, backOff);
         errorHandler.addNotRetryableExceptions(IllegalPaymentUpdateMessageFormatException.class);
-        factory.setCommonErrorHandler(errorHandler);
-        return factory;
+        return errorHandler;
+    }
+
+    /**
+     * The exception thrown by the listener, without the container's wrappers.
+     */
+    private static Throwable listenerCause(Throwable e) {
+        Throwable cause = e;
+        while ((cause instanceof ListenerExecutionFailedException || cause instanceof BatchListenerFailedException)
+                && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        return cause;
     }
 
     @Bean
@@ -74,6 +137,20 @@ public class KafkaConfig {
         return new KafkaTemplate<>(producerFactory);
     }
 
+    /**
+     * Republishes failed records to the DLT with their original bytes, so a payload that is not valid
+     * UTF-8 or JSON is kept exactly as it was received.
+     */
+    @Bean
+    public KafkaTemplate<String, byte[]> deadLetterTemplate(MeterRegistry meterRegistry) {
+        Map<String, Object> props = new HashMap<>();
+        props.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        DefaultKafkaProducerFactory<String, byte[]> producerFactory =
+                new DefaultKafkaProducerFactory<>(props, new StringSerializer(), new ByteArraySerializer());
+        producerFactory.addListener(new MicrometerProducerListener<>(meterRegistry));
+        return new KafkaTemplate<>(producerFactory);
+    }
+
     @Bean
     public NewTopic paymentUpdateTopic() {
         return new NewTopic(paymentUpdateTopic, concurrency, (short) 1);
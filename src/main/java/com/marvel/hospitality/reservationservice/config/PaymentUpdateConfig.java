@@ -0,0 +1,19 @@
+package com.marvel.hospitality.reservationservice.config;
+
+import com.marvel.hospitality.reservationservice.listener.OrderedParallelExecutor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class PaymentUpdateConfig {
+
+    /**
+     * Workers of the ordered-parallel listener mode; unused by the record and batch modes.
+     */
+    @Bean
+    public OrderedParallelExecutor paymentUpdateExecutor(
+            @Value("${app.kafka.payment-update.max-parallelism:16}") int maxParallelism) {
+        return new OrderedParallelExecutor(maxParallelism);
+    }
+}
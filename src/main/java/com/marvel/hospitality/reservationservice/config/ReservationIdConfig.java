@@ -0,0 +1,35 @@
+package com.marvel.hospitality.reservationservice.config;
+
+import com.marvel.hospitality.reservationservice.entity.Reservation;
+import com.marvel.hospitality.reservationservice.id.ReservationIdGenerator;
+import com.marvel.hospitality.reservationservice.id.TimeOrderedReservationIdGenerator;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+@Configuration
+public class ReservationIdConfig {
+
+    /**
+     * How far ahead of the clock persisted ids are looked for at startup: ids borrowed further ahead, or
+     * issued before the clock stepped back by more, are not seen.
+     */
+    static final Duration SEED_HORIZON = Duration.ofDays(1);
+
+    /**
+     * Entities are not Spring beans, so the generator is also handed to {@link Reservation}
+     * for its {@code @PrePersist} callback. {@code reservation.id.node-id} has no default: two instances
+     * sharing a node id would issue the same ids, so startup fails unless it is set.
+     */
+    @Bean
+    public ReservationIdGenerator reservationIdGenerator(@Value("${reservation.id.node-id}") int nodeId,
+                                                         ReservationRepository repository) {
+        TimeOrderedReservationIdGenerator generator = new TimeOrderedReservationIdGenerator(nodeId);
+        repository.findMaxIdUpTo(generator.highestIdWithin(SEED_HORIZON)).ifPresent(generator::continueAfter);
+        Reservation.useIdGenerator(generator);
+        return generator;
+    }
+}
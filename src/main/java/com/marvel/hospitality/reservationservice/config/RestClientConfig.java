@@ -1,47 +1,81 @@
 package com.marvel.hospitality.reservationservice.config;
 
+import com.marvel.hospitality.reservationservice.client.PaymentVerificationExecutor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
 import org.apache.hc.client5.http.config.ConnectionConfig;
 import org.apache.hc.client5.http.config.RequestConfig;
 import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
 import org.apache.hc.client5.http.impl.classic.HttpClients;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
 import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
 import org.apache.hc.core5.util.Timeout;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestClient;
 
-import java.util.concurrent.TimeUnit;
-
 @Configuration
+@EnableConfigurationProperties(CreditCardHttpProperties.class)
 public class RestClientConfig {
 
+    /**
+     * Pooled connections to the credit-card service. The credit-card service is the only route, so
+     * {@code max-conn-per-route} is the effective limit on concurrent card calls; with virtual threads
+     * (the {@code virtual-threads} profile) it is raised to match the request concurrency. Pool usage is
+     * published as {@code httpcomponents.httpclient.pool.*} tagged {@code httpclient=creditCard}.
+     */
     @Bean
-    public RestClient restClient() {
+    public PoolingHttpClientConnectionManager creditCardConnectionManager(CreditCardHttpProperties properties,
+                                                                          MeterRegistry meterRegistry) {
         ConnectionConfig connectionConfig = ConnectionConfig.custom()
-                .setConnectTimeout(Timeout.of(2, TimeUnit.SECONDS))
-                .setSocketTimeout(Timeout.of(5, TimeUnit.SECONDS))
+                .setConnectTimeout(Timeout.of(properties.connectTimeout()))
+                .setSocketTimeout(Timeout.of(properties.socketTimeout()))
+                .setTimeToLive(TimeValue.of(properties.connectionTtl()))
                 .build();
 
         PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
-                .setMaxConnTotal(50)
-                .setMaxConnPerRoute(20)
+                .setMaxConnTotal(properties.maxConnTotal())
+                .setMaxConnPerRoute(properties.maxConnPerRoute())
                 .setDefaultConnectionConfig(connectionConfig)
                 .build();
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, "creditCard").bindTo(meterRegistry);
+        return connectionManager;
+    }
 
+    /**
+     * Closed with the context, which also stops its idle-connection evictor thread.
+     */
+    @Bean
+    public CloseableHttpClient creditCardHttpClient(PoolingHttpClientConnectionManager connectionManager,
+                                                    CreditCardHttpProperties properties) {
         RequestConfig requestConfig = RequestConfig.custom()
-                .setConnectionRequestTimeout(Timeout.of(1, TimeUnit.SECONDS))
+                .setConnectionRequestTimeout(Timeout.of(properties.connectionRequestTimeout()))
+                .setConnectionKeepAlive(TimeValue.of(properties.keepAlive()))
                 .build();
 
-        CloseableHttpClient httpClient = HttpClients.custom()
+        return HttpClients.custom()
                 .setConnectionManager(connectionManager)
                 .setDefaultRequestConfig(requestConfig)
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.idleEviction()))
                 .disableAutomaticRetries()
                 .build();
+    }
 
+    @Bean
+    public RestClient restClient(CloseableHttpClient creditCardHttpClient) {
         return RestClient.builder()
-                .requestFactory(new HttpComponentsClientHttpRequestFactory(httpClient))
+                .requestFactory(new HttpComponentsClientHttpRequestFactory(creditCardHttpClient))
                 .build();
     }
-}
\ No newline at end of file
+
+    @Bean
+    public PaymentVerificationExecutor paymentVerificationExecutor(
+            @Value("${credit-card-service.async.max-concurrency:16}") int maxConcurrency) {
+        return new PaymentVerificationExecutor(maxConcurrency);
+    }
+}
@@ -5,7 +5,9 @@ package com.marvel.hospitality.reservationservice.controller;
 import com.marvel.hospitality.reservationservice.exception.CreditCardServiceUnavailableException;
 import com.marvel.hospitality.reservationservice.exception.InvalidPaymentReferenceException;
 import com.marvel.hospitality.reservationservice.exception.PaymentRejectedException;
+import com.marvel.hospitality.reservationservice.exception.ReservationNotFoundException;
 import com.marvel.hospitality.reservationservice.exception.ReservationValidationException;
+import com.marvel.hospitality.reservationservice.exception.RoomUnavailableException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
@@ -16,6 +18,7 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.time.Instant;
 import java.util.LinkedHashMap;
@@ -51,7 +54,8 @@ public class GlobalExceptionHandler {
 
 
     @ExceptionHandler({ReservationValidationException.class, IllegalArgumentException.class,
-            InvalidPaymentReferenceException.class, PaymentRejectedException.class})
+            InvalidPaymentReferenceException.class, PaymentRejectedException.class,
+            MethodArgumentTypeMismatchException.class})
     public ProblemDetail handleBadRequest(RuntimeException ex, WebRequest request) {
         return buildProblemDetail(
                 HttpStatus.BAD_REQUEST,
@@ -61,6 +65,26 @@ public class GlobalExceptionHandler {
         );
     }
 
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ProblemDetail handleNotFound(ReservationNotFoundException ex, WebRequest request) {
+        return buildProblemDetail(
+                HttpStatus.NOT_FOUND,
+                ex.getMessage(),
+                null,
+                request
+        );
+    }
+
+    @ExceptionHandler(RoomUnavailableException.class)
+    public ProblemDetail handleRoomUnavailable(RoomUnavailableException ex, WebRequest request) {
+        return buildProblemDetail(
+                HttpStatus.CONFLICT,
+                ex.getMessage(),
+                null,
+                request
+        );
+    }
+
     @ExceptionHandler(CreditCardServiceUnavailableException.class)
     public ProblemDetail handleCreditCardUnavailable(CreditCardServiceUnavailableException ex,
                                                      WebRequest request) {
@@ -1,7 +1,16 @@
 package com.marvel.hospitality.reservationservice.controller;
 
+import com.marvel.hospitality.reservationservice.dto.BatchReservationRequest;
+import com.marvel.hospitality.reservationservice.dto.BatchReservationResponse;
+import com.marvel.hospitality.reservationservice.dto.ReservationFilter;
+import com.marvel.hospitality.reservationservice.dto.ReservationPage;
 import com.marvel.hospitality.reservationservice.dto.ReservationRequest;
 import com.marvel.hospitality.reservationservice.dto.ReservationResponse;
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import com.marvel.hospitality.reservationservice.export.ReservationExporter;
+import com.marvel.hospitality.reservationservice.model.ExportFormat;
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
+import com.marvel.hospitality.reservationservice.model.ReservationStatus;
 import com.marvel.hospitality.reservationservice.service.ReservationService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,10 +19,23 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.WebAsyncTask;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Locale;
 
 
 @RestController
@@ -22,6 +44,10 @@ import org.springframework.web.bind.annotation.*;
 public class ReservationController {
 
     private final ReservationService service;
+    private final ReservationExporter exporter;
+
+    @Value("${reservation.export.timeout:30m}")
+    private Duration exportTimeout;
 
     @Operation(
             summary = "Submits a room reservation",
@@ -36,6 +62,7 @@ public class ReservationController {
             - Start date must be in the future or today
             - End date must be after start date
             - All required fields must be provided
+            - The room must not already be booked for any night of the stay
             """
     )
     @ApiResponses(value = {
@@ -59,6 +86,11 @@ public class ReservationController {
                     description = "Invalid request data (validation errors, rejected payment, etc.)",
                     content = @Content(mediaType = "application/problem+json")
             ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "Room already booked for an overlapping stay",
+                    content = @Content(mediaType = "application/problem+json")
+            ),
             @ApiResponse(
                     responseCode = "503",
                     description = "Credit card service unavailable (circuit open or external 503)",
@@ -83,4 +115,176 @@ public class ReservationController {
     ) {
         return service.createReservation(request);
     }
+
+    @Operation(
+            summary = "Submits several room reservations at once",
+            description = """
+            Creates a batch of reservations (group and travel-agency bookings) in a single database transaction.
+            Each reservation follows the same rules as POST /reservations.
+            - ALL_OR_NOTHING (default): the first failing reservation rejects the whole batch
+            - PER_ITEM: every valid reservation is created and the failures are reported per item
+            """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "201",
+                    description = "All reservations were created",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BatchReservationResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "207",
+                    description = "PER_ITEM mode only: some reservations were not created, see the per-item errors",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = BatchReservationResponse.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid request data, or an invalid reservation in ALL_OR_NOTHING mode",
+                    content = @Content(mediaType = "application/problem+json")
+            ),
+            @ApiResponse(
+                    responseCode = "409",
+                    description = "ALL_OR_NOTHING mode only: a room is already booked for an overlapping stay",
+                    content = @Content(mediaType = "application/problem+json")
+            ),
+            @ApiResponse(
+                    responseCode = "503",
+                    description = "ALL_OR_NOTHING mode only: credit card service unavailable",
+                    content = @Content(mediaType = "application/problem+json")
+            )
+    })
+    @PostMapping("/batch")
+    public ResponseEntity<BatchReservationResponse> createReservations(
+            @Valid
+            @RequestBody
+            @Parameter(description = "Reservations to create and the batch mode", required = true)
+            BatchReservationRequest request
+    ) {
+        BatchReservationResponse response = service.createReservations(request.reservations(), request.modeOrDefault());
+        HttpStatus status = response.allCreated() ? HttpStatus.CREATED : HttpStatus.MULTI_STATUS;
+        return ResponseEntity.status(status).body(response);
+    }
+
+    @Operation(summary = "Gets a reservation by ID")
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "The reservation",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReservationView.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "404",
+                    description = "No reservation with this ID",
+                    content = @Content(mediaType = "application/problem+json")
+            )
+    })
+    @GetMapping("/{id}")
+    public ReservationView getReservation(
+            @PathVariable
+            @Parameter(description = "Reservation ID", example = "ABC12345")
+            String id
+    ) {
+        return service.getReservation(id);
+    }
+
+    @Operation(
+            summary = "Lists reservations",
+            description = """
+            Lists reservations matching all given filters, ordered by reservation ID.
+            Pages are keyset-based: pass the nextCursor of a page as 'after' to get the next one;
+            it is null on the last page.
+            'from' and 'to' select the stays with at least one night in [from, to).
+            """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "One page of reservations",
+                    content = @Content(
+                            mediaType = "application/json",
+                            schema = @Schema(implementation = ReservationPage.class)
+                    )
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid filter or page size",
+                    content = @Content(mediaType = "application/problem+json")
+            )
+    })
+    @GetMapping
+    public ReservationPage findReservations(
+            @RequestParam(required = false) ReservationStatus status,
+            @RequestParam(required = false) PaymentMode paymentMode,
+            @RequestParam(required = false) String roomNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false)
+            @Parameter(description = "nextCursor of the previous page")
+            String after,
+            @RequestParam(defaultValue = "20")
+            @Parameter(description = "Page size, 1 to 100")
+            int limit
+    ) {
+        return service.findReservations(new ReservationFilter(status, paymentMode, roomNumber, from, to), after, limit);
+    }
+
+    @Operation(
+            summary = "Exports reservations",
+            description = """
+            Streams every reservation matching the filters, ordered by reservation ID, as NDJSON
+            (one JSON object per line) or CSV with a header row. Rows are written as they are read from
+            the database, so exports of any size use constant memory. The export runs as an async request
+            with its own timeout (reservation.export.timeout); other async requests keep the default.
+            """
+    )
+    @ApiResponses(value = {
+            @ApiResponse(
+                    responseCode = "200",
+                    description = "The exported reservations",
+                    content = {
+                            @Content(mediaType = "application/x-ndjson"),
+                            @Content(mediaType = "text/csv")
+                    }
+            ),
+            @ApiResponse(
+                    responseCode = "400",
+                    description = "Invalid filter or format",
+                    content = @Content(mediaType = "application/problem+json")
+            )
+    })
+    @GetMapping("/export")
+    public WebAsyncTask<Void> exportReservations(
+            @RequestParam(required = false) ReservationStatus status,
+            @RequestParam(required = false) PaymentMode paymentMode,
+            @RequestParam(required = false) String roomNumber,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "NDJSON")
+            @Parameter(description = "NDJSON or CSV")
+            ExportFormat format,
+            HttpServletResponse response
+    ) {
+        ReservationFilter filter = new ReservationFilter(status, paymentMode, roomNumber, from, to);
+        MediaType contentType = switch (format) {
+            case NDJSON -> MediaType.APPLICATION_NDJSON;
+            case CSV -> new MediaType("text", "csv", StandardCharsets.UTF_8);
+        };
+        ContentDisposition attachment = ContentDisposition.attachment()
+                .filename("reservations." + format.name().toLowerCase(Locale.ROOT))
+                .build();
+        response.setContentType(contentType.toString());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, attachment.toString());
+        return new WebAsyncTask<>(exportTimeout.toMillis(), () -> {
+            exporter.export(filter, format, response.getOutputStream());
+            return null;
+        });
+    }
 }
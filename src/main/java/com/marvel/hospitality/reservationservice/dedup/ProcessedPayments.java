@@ -0,0 +1,171 @@
+package com.marvel.hospitality.reservationservice.dedup;
+
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.marvel.hospitality.reservationservice.dto.BankTransferPayment;
+import com.marvel.hospitality.reservationservice.entity.ProcessedPayment;
+import com.marvel.hospitality.reservationservice.repository.ProcessedPaymentRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+
+/**
+ * Tells whether a bank-transfer payment update has already been applied, so Kafka redeliveries and
+ * error-handler retries are dropped before the reservation is loaded. Recently applied payment ids
+ * are answered from a bounded in-memory LRU; anything else is looked up by primary key in the
+ * {@code processed_payments} table, which remains the source of truth across restarts and instances.
+ * <p>
+ * {@link #markProcessed} must run inside the transaction that applies the payment: the row is written
+ * with it, and the id only enters the in-memory set once that transaction has committed.
+ * Rows are kept for {@code app.kafka.payment-update.dedup.retention} and then purged daily, so the table
+ * holds about that many days of payments instead of growing forever.
+ * Lookups are counted in {@code payment.update.dedup}, tagged {@code memory_hit}, {@code store_hit}
+ * or {@code miss}.
+ */
+@Slf4j
+@Component
+public class ProcessedPayments {
+
+    private final ProcessedPaymentRepository repository;
+    private final Cache<String, Boolean> recent;
+    private final Duration retention;
+    private final Counter memoryHits;
+    private final Counter storeHits;
+    private final Counter misses;
+
+    public ProcessedPayments(ProcessedPaymentRepository repository,
+                             @Value("${app.kafka.payment-update.dedup.recent-size:100000}") long recentSize,
+                             @Value("${app.kafka.payment-update.dedup.recent-ttl:24h}") Duration recentTtl,
+                             @Value("${app.kafka.payment-update.dedup.retention:30d}") Duration retention,
+                             MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.retention = retention;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(recentSize)
+                .expireAfterWrite(recentTtl)
+                .build();
+        this.memoryHits = lookups(meterRegistry, "memory_hit");
+        this.storeHits = lookups(meterRegistry, "store_hit");
+        this.misses = lookups(meterRegistry, "miss");
+    }
+
+    /**
+     * @return whether the payment was already applied; always false for a null payment id
+     */
+    public boolean isProcessed(String paymentId) {
+        if (paymentId == null) {
+            return false;
+        }
+        if (recent.getIfPresent(paymentId) != null) {
+            memoryHits.increment();
+            return true;
+        }
+        if (repository.existsById(paymentId)) {
+            storeHits.increment();
+            recent.put(paymentId, Boolean.TRUE);
+            return true;
+        }
+        misses.increment();
+        return false;
+    }
+
+    /**
+     * Batch form of {@link #isProcessed}, with a single query for the ids not held in memory.
+     *
+     * @return the given payment ids that were already applied
+     */
+    public Set<String> processedOf(Collection<String> paymentIds) {
+        Set<String> processed = new HashSet<>();
+        Set<String> unknown = new HashSet<>();
+        for (String paymentId : paymentIds) {
+            if (paymentId == null) {
+                continue;
+            }
+            if (recent.getIfPresent(paymentId) != null) {
+                memoryHits.increment();
+                processed.add(paymentId);
+            } else {
+                unknown.add(paymentId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            Set<String> stored = repository.findProcessedIds(unknown);
+            stored.forEach(paymentId -> recent.put(paymentId, Boolean.TRUE));
+            storeHits.increment(stored.size());
+            misses.increment(unknown.size() - stored.size());
+            processed.addAll(stored);
+        }
+        return processed;
+    }
+
+    public void markProcessed(BankTransferPayment payment) {
+        markProcessed(List.of(payment));
+    }
+
+    public void markProcessed(Collection<BankTransferPayment> payments) {
+        LocalDateTime now = LocalDateTime.now();
+        List<ProcessedPayment> rows = payments.stream()
+                .filter(payment -> payment.paymentId() != null)
+                .map(payment -> new ProcessedPayment(payment.paymentId(), payment.reservationId(), now))
+                .toList();
+        if (rows.isEmpty()) {
+            return;
+        }
+        repository.saveAll(rows);
+        List<String> paymentIds = rows.stream().map(ProcessedPayment::getPaymentId).toList();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(paymentIds);
+                }
+            });
+        } else {
+            remember(paymentIds);
+        }
+    }
+
+    /**
+     * Deletes the rows of payments processed more than the retention ago. A redelivery of such a payment is
+     * no longer recognised as a duplicate, which is harmless: the confirmation only changes pending
+     * reservations, so it is skipped. The retention should still cover how long the topic and its DLT can
+     * replay an update, to keep replays out of the reservations table.
+     *
+     * @return the number of rows deleted
+     */
+    @Scheduled(cron = "${app.kafka.payment-update.dedup.purge-cron:0 30 0 * * ?}")
+    @Transactional
+    public int purgeExpired() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        int purged = repository.deleteProcessedBefore(cutoff);
+        log.info("Purged {} processed payments older than {}", purged, cutoff);
+        return purged;
+    }
+
+    private void remember(List<String> paymentIds) {
+        paymentIds.forEach(paymentId -> recent.put(paymentId, Boolean.TRUE));
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payment.update.dedup")
+                .description("Payment update duplicate checks, by where the answer came from")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,8 @@
+package com.marvel.hospitality.reservationservice.dto;
+
+
+/**
+ * A bank transfer received for a reservation. {@code paymentId} identifies the transfer itself and
+ * is used to recognise redelivered updates; it may be null for producers that do not send one.
+ */
+public record BankTransferPayment(String paymentId, String reservationId) {}
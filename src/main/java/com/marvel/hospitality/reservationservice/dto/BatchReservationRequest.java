@@ -0,0 +1,30 @@
+package com.marvel.hospitality.reservationservice.dto;
+
+
+import com.marvel.hospitality.reservationservice.model.BatchMode;
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+
+import java.util.List;
+
+import static io.swagger.v3.oas.annotations.media.Schema.RequiredMode.REQUIRED;
+
+public record BatchReservationRequest(
+
+        @NotEmpty(message = "At least one reservation is required")
+        @Size(max = 100, message = "A batch can contain at most 100 reservations")
+        @Schema(description = "Reservations to create", requiredMode = REQUIRED)
+        List<@Valid ReservationRequest> reservations,
+
+        @Schema(description = "ALL_OR_NOTHING rejects the whole batch on the first failure, "
+                + "PER_ITEM creates every valid reservation and reports the others (default ALL_OR_NOTHING)",
+                allowableValues = {"ALL_OR_NOTHING", "PER_ITEM"}, example = "ALL_OR_NOTHING")
+        BatchMode mode
+) {
+    public BatchMode modeOrDefault() {
+        return mode == null ? BatchMode.ALL_OR_NOTHING : mode;
+    }
+}
@@ -0,0 +1,16 @@
+package com.marvel.hospitality.reservationservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Response after creating a batch of room reservations")
+public record BatchReservationResponse(
+
+        @Schema(description = "One result per requested reservation, in request order")
+        List<BatchReservationResult> results
+) {
+    public boolean allCreated() {
+        return results.stream().allMatch(BatchReservationResult::succeeded);
+    }
+}
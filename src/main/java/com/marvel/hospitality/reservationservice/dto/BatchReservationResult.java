@@ -0,0 +1,32 @@
+package com.marvel.hospitality.reservationservice.dto;
+
+import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Outcome of one reservation of a batch")
+public record BatchReservationResult(
+
+        @Schema(description = "Position of the reservation in the request list", example = "0")
+        int index,
+
+        @Schema(description = "Reservation ID, absent when the reservation was not created", example = "ABC12345")
+        String reservationId,
+
+        @Schema(description = "Status of the created reservation, absent when it was not created", example = "CONFIRMED")
+        ReservationStatus status,
+
+        @Schema(description = "Why the reservation was not created", example = "The card payment was REJECTED")
+        String error
+) {
+    public static BatchReservationResult created(int index, String reservationId, ReservationStatus status) {
+        return new BatchReservationResult(index, reservationId, status, null);
+    }
+
+    public static BatchReservationResult failed(int index, String error) {
+        return new BatchReservationResult(index, null, null, error);
+    }
+
+    public boolean succeeded() {
+        return reservationId != null;
+    }
+}
@@ -0,0 +1,11 @@
+package com.marvel.hospitality.reservationservice.dto;
+
+
+import java.util.List;
+
+
+/**
+ * One chunk of the overdue cancellation: how many reservations were selected, and the stays of those that
+ * were actually cancelled. Reservations confirmed between the select and the update are selected but not cancelled.
+ */
+public record OverdueChunk(int selected, List<RoomStay> cancelled) {}
@@ -0,0 +1,25 @@
+package com.marvel.hospitality.reservationservice.dto;
+
+
+import com.marvel.hospitality.reservationservice.exception.ReservationValidationException;
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
+import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+
+
+import java.time.LocalDate;
+
+
+/**
+ * Criteria of a reservation listing or export; {@code null} fields match everything. {@code from} and
+ * {@code to} select the stays with at least one night in {@code [from, to)}. Checked on construction, so
+ * an export can reject a bad filter before its response is committed.
+ */
+public record ReservationFilter(ReservationStatus status, PaymentMode paymentMode, String roomNumber,
+                                LocalDate from, LocalDate to) {
+
+    public ReservationFilter {
+        if (from != null && to != null && !to.isAfter(from)) {
+            throw new ReservationValidationException("'to' must be after 'from'");
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.marvel.hospitality.reservationservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "One page of reservations, ordered by reservation ID")
+public record ReservationPage(
+
+        @Schema(description = "Reservations on this page")
+        List<ReservationView> reservations,
+
+        @Schema(description = "Pass as 'after' to fetch the next page; null on the last page", example = "ABC12345")
+        String nextCursor
+) {}
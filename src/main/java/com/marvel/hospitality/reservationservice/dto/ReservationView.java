@@ -0,0 +1,40 @@
+package com.marvel.hospitality.reservationservice.dto;
+
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
+import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import com.marvel.hospitality.reservationservice.model.RoomSegment;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Schema(description = "Read-only view of a room reservation")
+public record ReservationView(
+
+        @Schema(description = "Unique 8-character uppercase alphanumeric reservation ID", example = "ABC12345")
+        String reservationId,
+
+        @Schema(description = "Full name of the customer", example = "John Doe")
+        String customerName,
+
+        @Schema(description = "Hotel room number", example = "101")
+        String roomNumber,
+
+        @Schema(description = "Reservation start date", example = "2026-03-01")
+        LocalDate startDate,
+
+        @Schema(description = "Reservation end date", example = "2026-03-05")
+        LocalDate endDate,
+
+        @Schema(description = "Room size category")
+        RoomSegment segment,
+
+        @Schema(description = "Payment method")
+        PaymentMode paymentMode,
+
+        @Schema(description = "Current status of the reservation")
+        ReservationStatus status,
+
+        @Schema(description = "When the reservation was created")
+        LocalDateTime createdAt
+) {}
@@ -0,0 +1,7 @@
+package com.marvel.hospitality.reservationservice.dto;
+
+
+import java.time.LocalDate;
+
+
+public record RoomStay(String reservationId, String roomNumber, LocalDate startDate, LocalDate endDate) {}
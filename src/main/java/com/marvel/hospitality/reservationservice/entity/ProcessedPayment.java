@@ -0,0 +1,43 @@
+package com.marvel.hospitality.reservationservice.entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+
+import java.time.LocalDateTime;
+
+
+/**
+ * A payment update that has already been applied, keyed by the payment id of the bank transfer.
+ * Written in the same transaction as the reservation confirmation it caused, and never updated:
+ * rows are always inserted, so a concurrent duplicate fails on the primary key instead of
+ * silently merging. Rows older than the dedup retention are purged by {@code processed_at}.
+ */
+@Entity
+@Table(name = "processed_payments", indexes = {
+        @Index(name = "idx_processed_payments_processed_at", columnList = "processed_at")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProcessedPayment implements Persistable<String> {
+
+    @Id
+    private String paymentId;
+
+    private String reservationId;
+    private LocalDateTime processedAt;
+
+
+    @Override
+    public String getId() {
+        return paymentId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
@@ -1,6 +1,8 @@
 package com.marvel.hospitality.reservationservice.entity;
 
 
+import com.marvel.hospitality.reservationservice.id.ReservationIdGenerator;
+import com.marvel.hospitality.reservationservice.id.TimeOrderedReservationIdGenerator;
 import com.marvel.hospitality.reservationservice.model.PaymentMode;
 import com.marvel.hospitality.reservationservice.model.ReservationStatus;
 import com.marvel.hospitality.reservationservice.model.RoomSegment;
@@ -13,15 +15,33 @@ import java.time.LocalDateTime;
 
 
 @Entity
-@Table(name = "reservations")
+@Table(name = "reservations", indexes = {
+        @Index(name = "idx_reservations_status_mode_start", columnList = "status, payment_mode, start_date"),
+        @Index(name = "idx_reservations_room_dates", columnList = "room_number, start_date, end_date"),
+        @Index(name = "idx_reservations_status_id", columnList = "status, id"),
+        @Index(name = "idx_reservations_room_id", columnList = "room_number, id")
+})
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 public class Reservation {
+    /**
+     * Assigns ids to new reservations. Replaced at startup by the configured generator
+     * (see {@code ReservationIdConfig}); the default serves plain JPA tests.
+     */
+    private static volatile ReservationIdGenerator idGenerator = new TimeOrderedReservationIdGenerator(0);
+
     @Id
     private String id;
 
+    /**
+     * Optimistic lock: entity updates fail when the row changed since it was read, and the bulk
+     * status updates in {@code ReservationRepository} bump it as well.
+     */
+    @Version
+    private Long version;
+
 
     private String customerName;
     private String roomNumber;
@@ -42,7 +62,7 @@ public class Reservation {
     protected void onCreate() {
         createdAt = updatedAt = LocalDateTime.now();
         if (id == null) {
-            id = java.util.UUID.randomUUID().toString().replace("-", "").substring(0, 8).toUpperCase();
+            id = idGenerator.nextId();
         }
     }
 
@@ -51,4 +71,9 @@ public class Reservation {
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
     }
+
+
+    public static void useIdGenerator(ReservationIdGenerator generator) {
+        idGenerator = generator;
+    }
 }
@@ -0,0 +1,33 @@
+package com.marvel.hospitality.reservationservice.entity;
+
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+
+/**
+ * One row per room, locked for update by every transaction that saves a reservation of the room, so that
+ * its overlap check and insert run one after another across all instances. Rows are only ever inserted.
+ */
+@Entity
+@Table(name = "room_locks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomLock implements Persistable<String> {
+
+    @Id
+    private String roomNumber;
+
+
+    @Override
+    public String getId() {
+        return roomNumber;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+}
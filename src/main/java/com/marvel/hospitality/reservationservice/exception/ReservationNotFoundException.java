@@ -0,0 +1,8 @@
+package com.marvel.hospitality.reservationservice.exception;
+
+
+public class ReservationNotFoundException extends RuntimeException {
+    public ReservationNotFoundException(String message) {
+        super(message);
+    }
+}
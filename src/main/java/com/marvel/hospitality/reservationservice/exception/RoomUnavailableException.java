@@ -0,0 +1,16 @@
+package com.marvel.hospitality.reservationservice.exception;
+
+
+import java.time.LocalDate;
+
+
+public class RoomUnavailableException extends RuntimeException {
+    public RoomUnavailableException(String message) {
+        super(message);
+    }
+
+    public static RoomUnavailableException booked(String roomNumber, LocalDate startDate, LocalDate endDate) {
+        return new RoomUnavailableException(
+                "Room %s is already booked between %s and %s".formatted(roomNumber, startDate, endDate));
+    }
+}
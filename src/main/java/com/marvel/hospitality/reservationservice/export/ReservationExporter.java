@@ -0,0 +1,115 @@
+package com.marvel.hospitality.reservationservice.export;
+
+
+import com.marvel.hospitality.reservationservice.dto.ReservationFilter;
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import com.marvel.hospitality.reservationservice.model.ExportFormat;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
+
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+
+/**
+ * Writes every reservation matching a filter as NDJSON (one {@link ReservationView} object per line) or CSV
+ * with a header row, in reservation id order. Rows go from the database cursor of
+ * {@link ReservationRepository#streamViews} straight to the output through a fixed-size buffer, so memory
+ * stays flat however many rows are exported. Exported rows are counted in {@code reservation.export.rows},
+ * tagged by {@code format}.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReservationExporter {
+
+    static final String CSV_HEADER =
+            "reservationId,customerName,roomNumber,startDate,endDate,segment,paymentMode,status,createdAt";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final ReservationRepository repository;
+    private final JsonMapper jsonMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Runs in a read-only transaction that holds one connection for the whole export. Does not close {@code out}.
+     *
+     * @return the number of reservations written
+     */
+    @Transactional(readOnly = true)
+    public long export(ReservationFilter filter, ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        long rows = 0;
+        try (Stream<ReservationView> views = repository.streamViews(filter)) {
+            if (format == ExportFormat.CSV) {
+                writer.write(CSV_HEADER);
+                writer.write('\n');
+            }
+            Iterator<ReservationView> cursor = views.iterator();
+            while (cursor.hasNext()) {
+                ReservationView view = cursor.next();
+                if (format == ExportFormat.CSV) {
+                    writeCsv(writer, view);
+                } else {
+                    writer.write(jsonMapper.writeValueAsString(view));
+                }
+                writer.write('\n');
+                rows++;
+            }
+            writer.flush();
+        } finally {
+            meterRegistry.counter("reservation.export.rows", "format", format.name()).increment(rows);
+        }
+        log.info("Exported {} reservations as {}", rows, format);
+        return rows;
+    }
+
+    private static void writeCsv(Writer writer, ReservationView view) throws IOException {
+        writeField(writer, view.reservationId());
+        writer.write(',');
+        writeField(writer, view.customerName());
+        writer.write(',');
+        writeField(writer, view.roomNumber());
+        writer.write(',');
+        writeField(writer, view.startDate());
+        writer.write(',');
+        writeField(writer, view.endDate());
+        writer.write(',');
+        writeField(writer, view.segment());
+        writer.write(',');
+        writeField(writer, view.paymentMode());
+        writer.write(',');
+        writeField(writer, view.status());
+        writer.write(',');
+        writeField(writer, view.createdAt());
+    }
+
+    /**
+     * RFC 4180 quoting: values containing a comma, quote or line break are quoted, with quotes doubled.
+     */
+    private static void writeField(Writer writer, Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+            writer.write(text);
+            return;
+        }
+        writer.write('"');
+        writer.write(text.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -0,0 +1,12 @@
+package com.marvel.hospitality.reservationservice.id;
+
+
+/**
+ * Source of reservation ids. Ids must be exactly 8 characters of {@code [A-Z0-9]}, the format
+ * bank-transfer payment updates refer to reservations by.
+ */
+@FunctionalInterface
+public interface ReservationIdGenerator {
+
+    String nextId();
+}
@@ -0,0 +1,121 @@
+package com.marvel.hospitality.reservationservice.id;
+
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+
+/**
+ * Time-ordered, node-aware ids rendered as 8 base-36 digits (41 bits used out of 36^8):
+ * <pre>
+ *   29 bits  seconds since 2025-01-01T00:00:00Z (good until 2042)
+ *    4 bits  node id (0-15), so instances never collide with each other
+ *    8 bits  sequence within the second
+ * </pre>
+ * Seconds and sequence are kept as one counter advanced with a CAS: each id takes
+ * {@code max(previous + 1, now)}, so ids are unique and increasing per node, and a burst of more than
+ * 256 ids in a second borrows sequence numbers from the following seconds instead of failing.
+ * Each id allocates only its 8-byte digit array and the resulting string; nothing is cached per thread,
+ * which would cost a buffer per virtual thread.
+ * <p>
+ * The counter lives in memory, so after a restart the ids borrowed ahead of the clock, or issued before the
+ * clock stepped back, would come again: {@link #continueAfter} moves it past the highest persisted id first.
+ */
+public class TimeOrderedReservationIdGenerator implements ReservationIdGenerator {
+
+    static final long EPOCH_SECOND = Instant.parse("2025-01-01T00:00:00Z").getEpochSecond();
+    static final int SEQUENCE_BITS = 8;
+    static final int NODE_BITS = 4;
+    static final int TIME_BITS = 29;
+    static final int ID_LENGTH = 8;
+
+    private static final byte[] DIGITS = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ".getBytes(StandardCharsets.US_ASCII);
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final long NODE_MASK = (1L << NODE_BITS) - 1;
+    private static final long MAX_TIME_AND_SEQUENCE = (1L << (TIME_BITS + SEQUENCE_BITS)) - 1;
+
+    private final long node;
+    private final LongSupplier epochMillis;
+    private final AtomicLong lastTimeAndSequence = new AtomicLong();
+
+    public TimeOrderedReservationIdGenerator(int nodeId) {
+        this(nodeId, System::currentTimeMillis);
+    }
+
+    TimeOrderedReservationIdGenerator(int nodeId, LongSupplier epochMillis) {
+        if (nodeId < 0 || nodeId >= 1 << NODE_BITS) {
+            throw new IllegalArgumentException("reservation.id.node-id must be between 0 and " + ((1 << NODE_BITS) - 1));
+        }
+        this.node = nodeId;
+        this.epochMillis = epochMillis;
+    }
+
+    @Override
+    public String nextId() {
+        long now = (epochMillis.getAsLong() / 1000 - EPOCH_SECOND) << SEQUENCE_BITS;
+        long previous;
+        long next;
+        do {
+            previous = lastTimeAndSequence.get();
+            next = Math.max(previous + 1, now);
+        } while (!lastTimeAndSequence.compareAndSet(previous, next));
+
+        if (next > MAX_TIME_AND_SEQUENCE) {
+            throw new IllegalStateException("Clock is outside the range of the reservation id format");
+        }
+        long value = (next >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                | (node << SEQUENCE_BITS)
+                | (next & SEQUENCE_MASK);
+        return encode(value);
+    }
+
+    /**
+     * @return the highest id any node can have issued by {@code horizon} from now; ids above it were not
+     *         generated in this format
+     */
+    public String highestIdWithin(Duration horizon) {
+        long seconds = epochMillis.getAsLong() / 1000 - EPOCH_SECOND + horizon.toSeconds();
+        long timeAndSequence = Math.min((seconds << SEQUENCE_BITS) | SEQUENCE_MASK, MAX_TIME_AND_SEQUENCE);
+        return encode((timeAndSequence >>> SEQUENCE_BITS) << (NODE_BITS + SEQUENCE_BITS)
+                | (NODE_MASK << SEQUENCE_BITS)
+                | SEQUENCE_MASK);
+    }
+
+    /**
+     * Makes every following id greater than {@code issuedId}. An id of another node only moves the counter to
+     * the end of its second, the highest this node may have reached in that second.
+     */
+    public void continueAfter(String issuedId) {
+        long value = decode(issuedId);
+        long sequence = (value >>> SEQUENCE_BITS & NODE_MASK) == node ? value & SEQUENCE_MASK : SEQUENCE_MASK;
+        long timeAndSequence = (value >>> (NODE_BITS + SEQUENCE_BITS)) << SEQUENCE_BITS | sequence;
+        lastTimeAndSequence.accumulateAndGet(timeAndSequence, Math::max);
+    }
+
+    private static String encode(long value) {
+        byte[] buffer = new byte[ID_LENGTH];
+        for (int i = ID_LENGTH - 1; i >= 0; i--) {
+            buffer[i] = DIGITS[(int) (value % 36)];
+            value /= 36;
+        }
+        return new String(buffer, 0, ID_LENGTH, StandardCharsets.US_ASCII);
+    }
+
+    private static long decode(String id) {
+        if (id.length() != ID_LENGTH) {
+            throw new IllegalArgumentException("Not a reservation id: " + id);
+        }
+        long value = 0;
+        for (int i = 0; i < ID_LENGTH; i++) {
+            int digit = Character.digit(id.charAt(i), 36);
+            if (digit < 0 || Character.isLowerCase(id.charAt(i))) {
+                throw new IllegalArgumentException("Not a reservation id: " + id);
+            }
+            value = value * 36 + digit;
+        }
+        return value;
+    }
+}
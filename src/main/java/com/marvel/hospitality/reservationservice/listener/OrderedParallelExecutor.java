@@ -0,0 +1,83 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+
+/**
+ * Processes a list of items on virtual threads while keeping the list order among items that share a key:
+ * each key gets one worker that handles its items one after the other, and workers for different keys run
+ * concurrently, at most {@code maxConcurrency} at a time. A worker stops at the first item that fails, so
+ * later items of the same key are never applied ahead of it.
+ */
+public class OrderedParallelExecutor implements AutoCloseable {
+
+    private final ExecutorService virtualThreads;
+    private final Semaphore permits;
+
+    public OrderedParallelExecutor(int maxConcurrency) {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("maxConcurrency must be positive");
+        }
+        this.virtualThreads = Executors.newThreadPerTaskExecutor(
+                Thread.ofVirtual().name("payment-update-", 0).factory());
+        this.permits = new Semaphore(maxConcurrency);
+    }
+
+    /**
+     * Runs {@code action} on every item and waits for all workers to finish.
+     *
+     * @return the failure with the smallest index, if any; every item before that index has been processed
+     */
+    public <T> Optional<Failure> processAll(List<T> items, Function<T, ?> keyOf, Consumer<T> action) {
+        Map<Object, List<Integer>> indexesByKey = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            indexesByKey.computeIfAbsent(keyOf.apply(items.get(i)), key -> new ArrayList<>()).add(i);
+        }
+        List<CompletableFuture<Failure>> workers = new ArrayList<>(indexesByKey.size());
+        for (List<Integer> indexes : indexesByKey.values()) {
+            workers.add(CompletableFuture.supplyAsync(() -> process(items, indexes, action), virtualThreads));
+        }
+        Failure first = null;
+        for (CompletableFuture<Failure> worker : workers) {
+            Failure failure = worker.join();
+            if (failure != null && (first == null || failure.index() < first.index())) {
+                first = failure;
+            }
+        }
+        return Optional.ofNullable(first);
+    }
+
+    private <T> Failure process(List<T> items, List<Integer> indexes, Consumer<T> action) {
+        permits.acquireUninterruptibly();
+        try {
+            for (int index : indexes) {
+                try {
+                    action.accept(items.get(index));
+                } catch (RuntimeException e) {
+                    return new Failure(index, e);
+                }
+            }
+            return null;
+        } finally {
+            permits.release();
+        }
+    }
+
+    @Override
+    public void close() {
+        virtualThreads.shutdown();
+    }
+
+    public record Failure(int index, RuntimeException cause) {}
+}
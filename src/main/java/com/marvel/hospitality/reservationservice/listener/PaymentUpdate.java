@@ -0,0 +1,8 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+
+/**
+ * The parts of a bank-transfer payment update the listener acts on; everything else in the
+ * {@link com.marvel.hospitality.reservationservice.dto.PaymentUpdateEvent} payload is skipped.
+ */
+public record PaymentUpdate(String paymentId, String transactionDescription) {}
@@ -0,0 +1,71 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code /actuator/paymentupdates}: how far behind the payment-update consumer is, read from the meters
+ * published by the Kafka consumer and {@link PaymentUpdateListener}. Lag is the sum over the assigned
+ * partitions of the payment-update topic, which is what consumers should be scaled on.
+ */
+@Component
+@Endpoint(id = "paymentupdates")
+@RequiredArgsConstructor
+public class PaymentUpdateConsumerEndpoint {
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${spring.kafka.topic.payment-update}")
+    private String topic;
+
+    @ReadOperation
+    public ConsumerStatus status() {
+        List<PartitionLag> partitions = meterRegistry.find("kafka.consumer.fetch.manager.records.lag")
+                .tag("topic", topic)
+                .gauges().stream()
+                .filter(gauge -> gauge.getId().getTag("partition") != null)
+                .map(gauge -> new PartitionLag(Integer.parseInt(gauge.getId().getTag("partition")), lag(gauge)))
+                .sorted(Comparator.comparingInt(PartitionLag::partition))
+                .toList();
+        double recordsPerSecond = meterRegistry.find("kafka.consumer.fetch.manager.records.consumed.rate")
+                .tag("topic", topic)
+                .gauges().stream()
+                .mapToDouble(Gauge::value)
+                .filter(Double::isFinite)
+                .sum();
+        Timer latency = meterRegistry.find("payment.update.latency").tag("topic", topic).timer();
+        double deadLettered = meterRegistry.find("payment.update.dlt.published").counters().stream()
+                .mapToDouble(Counter::count)
+                .sum();
+        return new ConsumerStatus(
+                partitions.stream().mapToLong(PartitionLag::lag).sum(),
+                partitions,
+                recordsPerSecond,
+                latency == null ? 0 : latency.count(),
+                latency == null ? 0 : latency.mean(TimeUnit.MILLISECONDS),
+                latency == null ? 0 : latency.max(TimeUnit.MILLISECONDS),
+                (long) deadLettered);
+    }
+
+    private static long lag(Gauge gauge) {
+        double value = gauge.value();
+        return Double.isFinite(value) ? Math.max(0, (long) value) : 0;
+    }
+
+    public record PartitionLag(int partition, long lag) {}
+
+    public record ConsumerStatus(long totalLag, List<PartitionLag> partitions, double recordsPerSecond,
+                                 long confirmed, double meanLatencyMillis, double maxLatencyMillis,
+                                 long deadLettered) {}
+}
@@ -1,66 +1,184 @@
 package com.marvel.hospitality.reservationservice.listener;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.marvel.hospitality.reservationservice.dto.PaymentUpdateEvent;
+import com.marvel.hospitality.reservationservice.dto.BankTransferPayment;
 import com.marvel.hospitality.reservationservice.exception.IllegalPaymentUpdateMessageFormatException;
 import com.marvel.hospitality.reservationservice.service.ReservationService;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.stereotype.Component;
 
-import java.util.regex.Pattern;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class PaymentUpdateListener {
 
-    private final ObjectMapper objectMapper = new ObjectMapper();
     private final ReservationService service;
-    private static final Pattern RESERVATION_ID_PATTERN = Pattern.compile("^[A-Z0-9]{8}$");
+    private final PaymentUpdateReader reader;
+    private final OrderedParallelExecutor parallelExecutor;
+    private final MeterRegistry meterRegistry;
+    private static final int RESERVATION_ID_LENGTH = 8;
 
 
-    @KafkaListener(topics = "${spring.kafka.topic.payment-update}", groupId = "${spring.kafka.consumer.group-id}")
-    public void onMessage(ConsumerRecord<String, String> consumerRecord, Acknowledgment ack) {
-        String payload = consumerRecord.value();
+    @KafkaListener(topics = "${spring.kafka.topic.payment-update}", groupId = "${spring.kafka.consumer.group-id}",
+            autoStartup = "#{'${app.kafka.payment-update.listener-mode:record}' == 'record'}")
+    public void onMessage(ConsumerRecord<String, byte[]> consumerRecord, Acknowledgment ack) {
+        byte[] payload = consumerRecord.value();
         try {
-            PaymentUpdateEvent paymentUpdateEvent = getPaymentEvent(payload);
-            String reservationId = getReservationId(paymentUpdateEvent);
-            log.info("Processing valid bank transfer payment update for reservation {}", reservationId);
-            service.confirmBankTransferPayment(reservationId);
+            BankTransferPayment payment = toPayment(reader.read(payload));
+            log.info("Processing valid bank transfer payment update for reservation {}", payment.reservationId());
+            service.confirmBankTransferPayment(payment);
+            recordLatency(List.of(consumerRecord), 1);
             ack.acknowledge();
         } catch (Exception e) {
-            log.error("Failed processing message - will retry / send to DLQ: {}", payload, e);
+            log.error("Failed processing message - will retry / send to DLQ: {}", asText(payload), e);
             throw e;
         }
     }
 
-    private PaymentUpdateEvent getPaymentEvent(String payload) {
-        try {
-            return objectMapper.readValue(payload, PaymentUpdateEvent.class);
-        } catch (JsonProcessingException jsonProcessingException) {
-            throw new IllegalPaymentUpdateMessageFormatException("Unable to parse payment update message",
-                    jsonProcessingException);
+    /**
+     * Batch counterpart of {@link #onMessage}: confirms every reservation of the poll in one transaction
+     * and acknowledges the whole batch. On the first unparseable record, the valid records before it are
+     * still confirmed and the failed index is reported, so only that record goes to the DLT and the
+     * records after it are redelivered.
+     */
+    @KafkaListener(topics = "${spring.kafka.topic.payment-update}", groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "#{'${app.kafka.payment-update.listener-mode:record}' == 'batch'}")
+    public void onMessages(List<ConsumerRecord<String, byte[]>> consumerRecords, Acknowledgment ack) {
+        List<BankTransferPayment> payments = new ArrayList<>(consumerRecords.size());
+        for (int i = 0; i < consumerRecords.size(); i++) {
+            byte[] payload = consumerRecords.get(i).value();
+            try {
+                payments.add(toPayment(reader.read(payload)));
+            } catch (IllegalPaymentUpdateMessageFormatException e) {
+                log.error("Invalid message at index {} of batch - sending to DLQ: {}", i, asText(payload), e);
+                service.confirmBankTransferPayments(payments);
+                recordLatency(consumerRecords, i);
+                throw new BatchListenerFailedException(e.getMessage(), e, i);
+            }
+        }
+        log.info("Processing batch of {} bank transfer payment updates", payments.size());
+        service.confirmBankTransferPayments(payments);
+        recordLatency(consumerRecords, consumerRecords.size());
+        ack.acknowledge();
+    }
+
+    /**
+     * Ordered-parallel counterpart of {@link #onMessages}: the records of a poll are confirmed one by one
+     * as in {@link #onMessage}, on virtual-thread workers keyed by reservation id, so updates for the same
+     * reservation keep their order while unrelated ones run concurrently. The batch is acknowledged only
+     * once every worker is done; if a record fails, the records before it are committed and it is retried
+     * from there, like a record failing in batch mode. Records after it that already went through are
+     * redelivered and dropped as duplicates by their payment id.
+     */
+    @KafkaListener(topics = "${spring.kafka.topic.payment-update}", groupId = "${spring.kafka.consumer.group-id}",
+            containerFactory = "batchKafkaListenerContainerFactory",
+            autoStartup = "#{'${app.kafka.payment-update.listener-mode:record}' == 'ordered-parallel'}")
+    public void onMessagesInParallel(List<ConsumerRecord<String, byte[]>> consumerRecords, Acknowledgment ack) {
+        List<BankTransferPayment> payments = new ArrayList<>(consumerRecords.size());
+        IllegalPaymentUpdateMessageFormatException invalid = null;
+        for (int i = 0; i < consumerRecords.size() && invalid == null; i++) {
+            byte[] payload = consumerRecords.get(i).value();
+            try {
+                payments.add(toPayment(reader.read(payload)));
+            } catch (IllegalPaymentUpdateMessageFormatException e) {
+                log.error("Invalid message at index {} of batch - sending to DLQ: {}", i, asText(payload), e);
+                invalid = e;
+            }
+        }
+        log.info("Processing batch of {} bank transfer payment updates in parallel", payments.size());
+        Optional<OrderedParallelExecutor.Failure> failure = parallelExecutor.processAll(
+                payments, BankTransferPayment::reservationId, service::confirmBankTransferPayment);
+        if (failure.isPresent()) {
+            int index = failure.get().index();
+            RuntimeException cause = failure.get().cause();
+            recordLatency(consumerRecords, index);
+            log.error("Failed processing message at index {} of batch - will retry / send to DLQ: {}",
+                    index, asText(consumerRecords.get(index).value()), cause);
+            throw new BatchListenerFailedException(cause.getMessage(), cause, index);
+        }
+        recordLatency(consumerRecords, payments.size());
+        if (invalid != null) {
+            throw new BatchListenerFailedException(invalid.getMessage(), invalid, payments.size());
+        }
+        ack.acknowledge();
+    }
+
+    /**
+     * Records, for the first {@code count} records, the time from the record timestamp (normally when it was
+     * produced) to its confirmation, in {@code payment.update.latency}.
+     */
+    private void recordLatency(List<ConsumerRecord<String, byte[]>> consumerRecords, int count) {
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < count; i++) {
+            ConsumerRecord<String, byte[]> consumerRecord = consumerRecords.get(i);
+            if (consumerRecord.timestamp() >= 0) {
+                meterRegistry.timer("payment.update.latency", "topic", consumerRecord.topic())
+                        .record(Duration.ofMillis(Math.max(0, now - consumerRecord.timestamp())));
+            }
         }
     }
 
-    private static String getReservationId(PaymentUpdateEvent event) {
-        String desc = event.transactionDescription();
-        if (desc == null || desc.trim().isEmpty()) {
+    private static BankTransferPayment toPayment(PaymentUpdate update) {
+        return new BankTransferPayment(update.paymentId(), getReservationId(update.transactionDescription()));
+    }
+
+    private static String asText(byte[] payload) {
+        return payload == null ? null : new String(payload, UTF_8);
+    }
+
+    /**
+     * Extracts the reservation id, i.e. the second space-separated token of the trimmed description,
+     * which must be exactly 8 characters of [A-Z0-9] once trimmed. The first token is not checked.
+     * Scans the description in place: the only allocation on success is the returned id.
+     */
+    static String getReservationId(String desc) {
+        int start = 0;
+        int end = desc == null ? 0 : desc.length();
+        while (start < end && desc.charAt(start) <= ' ') start++;
+        while (end > start && desc.charAt(end - 1) <= ' ') end--;
+        if (start == end) {
             throw new IllegalPaymentUpdateMessageFormatException("Missing transactionDescription");
         }
-        String[] parts = desc.trim().split(" ");
-        if (parts.length < 2) {
+        int separator = desc.indexOf(' ', start);
+        if (separator < 0 || separator >= end) {
             throw new IllegalPaymentUpdateMessageFormatException("Invalid transactionDescription format - expected E2E<10chars> <reservationId>");
         }
-        String reservationId = parts[1].trim();
-        if (!RESERVATION_ID_PATTERN.matcher(reservationId).matches()) {
-            throw new IllegalPaymentUpdateMessageFormatException("Invalid reservationId (must be exactly 8 uppercase alphanumeric): " + reservationId);
+        int idStart = separator + 1;
+        int idEnd = desc.indexOf(' ', idStart);
+        if (idEnd < 0 || idEnd > end) {
+            idEnd = end;
+        }
+        while (idStart < idEnd && desc.charAt(idStart) <= ' ') idStart++;
+        while (idEnd > idStart && desc.charAt(idEnd - 1) <= ' ') idEnd--;
+        if (!isReservationId(desc, idStart, idEnd)) {
+            throw new IllegalPaymentUpdateMessageFormatException("Invalid reservationId (must be exactly 8 uppercase alphanumeric): " + desc.substring(idStart, idEnd));
+        }
+        return desc.substring(idStart, idEnd);
+    }
+
+    private static boolean isReservationId(String desc, int from, int to) {
+        if (to - from != RESERVATION_ID_LENGTH) {
+            return false;
+        }
+        for (int i = from; i < to; i++) {
+            char c = desc.charAt(i);
+            if ((c < 'A' || c > 'Z') && (c < '0' || c > '9')) {
+                return false;
+            }
         }
-        return reservationId;
+        return true;
     }
 }
@@ -0,0 +1,58 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+
+import com.marvel.hospitality.reservationservice.exception.IllegalPaymentUpdateMessageFormatException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import tools.jackson.core.JacksonException;
+import tools.jackson.core.JsonParser;
+import tools.jackson.core.JsonToken;
+import tools.jackson.databind.json.JsonMapper;
+
+
+/**
+ * Reads a payment update straight from the Kafka record bytes with a streaming parser created by the
+ * shared Spring {@link JsonMapper}. Only {@code paymentId} and {@code transactionDescription} are
+ * materialized; other properties, whatever their type, are skipped without being decoded.
+ */
+@Component
+@RequiredArgsConstructor
+public class PaymentUpdateReader {
+
+    private static final String PAYMENT_ID = "paymentId";
+    private static final String TRANSACTION_DESCRIPTION = "transactionDescription";
+
+    private final JsonMapper jsonMapper;
+
+    public PaymentUpdate read(byte[] payload) {
+        if (payload == null) {
+            throw new IllegalPaymentUpdateMessageFormatException("Unable to parse payment update message - empty payload");
+        }
+        try (JsonParser parser = jsonMapper.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalPaymentUpdateMessageFormatException("Unable to parse payment update message - not a JSON object");
+            }
+            String paymentId = null;
+            String transactionDescription = null;
+            for (String name = parser.nextName(); name != null; name = parser.nextName()) {
+                parser.nextToken();
+                switch (name) {
+                    case PAYMENT_ID -> paymentId = scalarText(parser);
+                    case TRANSACTION_DESCRIPTION -> transactionDescription = scalarText(parser);
+                    default -> parser.skipChildren();
+                }
+            }
+            return new PaymentUpdate(paymentId, transactionDescription);
+        } catch (JacksonException e) {
+            throw new IllegalPaymentUpdateMessageFormatException("Unable to parse payment update message", e);
+        }
+    }
+
+    private static String scalarText(JsonParser parser) {
+        if (parser.currentToken().isStructStart()) {
+            throw new IllegalPaymentUpdateMessageFormatException(
+                    "Unable to parse payment update message - " + parser.currentName() + " must be a scalar");
+        }
+        return parser.getValueAsString();
+    }
+}
@@ -0,0 +1,6 @@
+package com.marvel.hospitality.reservationservice.model;
+
+
+public enum BatchMode {
+    ALL_OR_NOTHING, PER_ITEM
+}
@@ -0,0 +1,6 @@
+package com.marvel.hospitality.reservationservice.model;
+
+
+public enum ExportFormat {
+    NDJSON, CSV
+}
@@ -0,0 +1,24 @@
+package com.marvel.hospitality.reservationservice.repository;
+
+
+import com.marvel.hospitality.reservationservice.entity.ProcessedPayment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+
+
+public interface ProcessedPaymentRepository extends JpaRepository<ProcessedPayment, String> {
+
+    @Query("select p.paymentId from ProcessedPayment p where p.paymentId in :ids")
+    Set<String> findProcessedIds(@Param("ids") Collection<String> ids);
+
+    @Modifying
+    @Query("delete from ProcessedPayment p where p.processedAt < :cutoff")
+    int deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff);
+}
@@ -1,17 +1,116 @@
 package com.marvel.hospitality.reservationservice.repository;
 
 
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import com.marvel.hospitality.reservationservice.dto.RoomStay;
 import com.marvel.hospitality.reservationservice.entity.Reservation;
 import com.marvel.hospitality.reservationservice.model.PaymentMode;
 import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 
-public interface ReservationRepository extends JpaRepository<Reservation, String> {
+public interface ReservationRepository extends JpaRepository<Reservation, String>, ReservationViewQueries {
+
+    /**
+     * Ids are fixed-length base-36, so their string order is their numeric order.
+     */
+    @Query("select max(r.id) from Reservation r where r.id <= :bound")
+    Optional<String> findMaxIdUpTo(@Param("bound") String bound);
+
     List<Reservation> findByStatusAndPaymentModeAndStartDateLessThanEqual(
             ReservationStatus status, PaymentMode mode, LocalDate date);
+
+    @Query("""
+            select new com.marvel.hospitality.reservationservice.dto.RoomStay(r.id, r.roomNumber, r.startDate, r.endDate)
+            from Reservation r
+            where r.status <> :excludedStatus and r.endDate > :date""")
+    List<RoomStay> findStaysEndingAfter(@Param("excludedStatus") ReservationStatus excludedStatus,
+                                        @Param("date") LocalDate date);
+
+    @Query("""
+            select new com.marvel.hospitality.reservationservice.dto.RoomStay(r.id, r.roomNumber, r.startDate, r.endDate)
+            from Reservation r
+            where r.roomNumber = :room and r.endDate > :date and r.status <> :excludedStatus""")
+    List<RoomStay> findRoomStaysEndingAfter(@Param("room") String roomNumber,
+                                            @Param("excludedStatus") ReservationStatus excludedStatus,
+                                            @Param("date") LocalDate date);
+
+    /**
+     * Whether a reservation not in {@code excludedStatus} shares a night with [start, end), answered from
+     * the {@code (room_number, start_date, end_date)} index.
+     */
+    @Query("""
+            select count(r) > 0 from Reservation r
+            where r.roomNumber = :room and r.startDate < :end and r.endDate > :start and r.status <> :excludedStatus""")
+    boolean existsOverlapping(@Param("room") String roomNumber, @Param("start") LocalDate start,
+                              @Param("end") LocalDate end, @Param("excludedStatus") ReservationStatus excludedStatus);
+
+    /**
+     * One chunk of the overdue cancellation, in no particular order: sorting would read all remaining overdue
+     * rows for every chunk, while without it the {@code (status, payment_mode, start_date)} index scan stops
+     * after {@code limit} rows. Cancelled rows leave the predicate, so the next chunk never sees them again.
+     */
+    @Query("""
+            select new com.marvel.hospitality.reservationservice.dto.RoomStay(r.id, r.roomNumber, r.startDate, r.endDate)
+            from Reservation r
+            where r.status = :status and r.paymentMode = :mode and r.startDate <= :date""")
+    List<RoomStay> findStaysStartingOnOrBefore(@Param("status") ReservationStatus status,
+                                               @Param("mode") PaymentMode mode,
+                                               @Param("date") LocalDate date,
+                                               Limit limit);
+
+    /**
+     * Set-based status transition; only rows still in {@code expectedStatus} are changed, and their
+     * version is bumped so that entities read before the update can no longer be saved over it. Bulk
+     * updates skip {@code @PreUpdate}, hence the explicit {@code updatedAt}.
+     *
+     * @return the number of rows updated
+     */
+    @Modifying
+    @Query("""
+            update Reservation r set r.status = :newStatus, r.updatedAt = :updatedAt, r.version = r.version + 1
+            where r.id in :ids and r.status = :expectedStatus""")
+    int updateStatus(@Param("ids") Collection<String> ids,
+                     @Param("expectedStatus") ReservationStatus expectedStatus,
+                     @Param("newStatus") ReservationStatus newStatus,
+                     @Param("updatedAt") LocalDateTime updatedAt);
+
+    /**
+     * Confirms a reservation still awaiting its bank transfer, in a single conditional UPDATE. Bulk updates
+     * bypass {@code @PreUpdate} and {@code @Version}, so {@code updatedAt} and the version are set explicitly.
+     *
+     * @return 1 if the reservation was confirmed, 0 if it does not exist or is not a pending bank transfer
+     */
+    @Modifying
+    @Query("""
+            update Reservation r set r.status = com.marvel.hospitality.reservationservice.model.ReservationStatus.CONFIRMED,
+                r.updatedAt = :updatedAt, r.version = r.version + 1
+            where r.id = :id
+              and r.status = com.marvel.hospitality.reservationservice.model.ReservationStatus.PENDING_PAYMENT
+              and r.paymentMode = com.marvel.hospitality.reservationservice.model.PaymentMode.BANK_TRANSFER""")
+    int confirmPendingBankTransfer(@Param("id") String id, @Param("updatedAt") LocalDateTime updatedAt);
+
+    @Query("select r.status from Reservation r where r.id = :id")
+    Optional<ReservationStatus> findStatusById(@Param("id") String id);
+
+    @Query("select r.id from Reservation r where r.id in :ids and r.status = :status")
+    List<String> findIdsWithStatus(@Param("ids") Collection<String> ids, @Param("status") ReservationStatus status);
+
+    @Query("""
+            select new com.marvel.hospitality.reservationservice.dto.ReservationView(r.id, r.customerName, r.roomNumber,
+                r.startDate, r.endDate, r.segment, r.paymentMode, r.status, r.createdAt)
+            from Reservation r
+            where r.id = :id""")
+    Optional<ReservationView> findViewById(@Param("id") String id);
 }
@@ -0,0 +1,36 @@
+package com.marvel.hospitality.reservationservice.repository;
+
+
+import com.marvel.hospitality.reservationservice.dto.ReservationFilter;
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import org.springframework.data.domain.Limit;
+
+
+import java.util.List;
+import java.util.stream.Stream;
+
+
+/**
+ * Reservation view queries whose predicates depend on which criteria are given, built with the Criteria API
+ * in {@link ReservationViewQueriesImpl}.
+ */
+public interface ReservationViewQueries {
+    int EXPORT_FETCH_SIZE = 1000;
+
+    /**
+     * Keyset page of reservations matching the non-null criteria of {@code filter}, ordered by id: the next page
+     * starts after the last id returned. Only the given criteria become predicates, so with a status or room
+     * filter a page is a range scan of the {@code (status, id)} or {@code (room_number, id)} index starting at
+     * the cursor. The other criteria are checked while walking that index, or the primary key when neither is
+     * given, so a page of sparse matches costs the rows skipped to find them.
+     * The date bounds select stays with at least one night in {@code [from, to)}.
+     */
+    List<ReservationView> findViewsAfter(String after, ReservationFilter filter, Limit limit);
+
+    /**
+     * Same predicates and order as {@link #findViewsAfter}, without paging, read through a forward-only cursor
+     * that fetches {@value #EXPORT_FETCH_SIZE} rows per round trip. Must be consumed and closed inside a
+     * transaction; PostgreSQL only honours the fetch size when auto-commit is off.
+     */
+    Stream<ReservationView> streamViews(ReservationFilter filter);
+}
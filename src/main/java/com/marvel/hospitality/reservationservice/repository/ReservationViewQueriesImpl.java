@@ -0,0 +1,72 @@
+package com.marvel.hospitality.reservationservice.repository;
+
+
+import com.marvel.hospitality.reservationservice.dto.ReservationFilter;
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import com.marvel.hospitality.reservationservice.entity.Reservation;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+
+class ReservationViewQueriesImpl implements ReservationViewQueries {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ReservationView> findViewsAfter(String after, ReservationFilter filter, Limit limit) {
+        return entityManager.createQuery(viewsQuery(after, filter)).setMaxResults(limit.max()).getResultList();
+    }
+
+    @Override
+    public Stream<ReservationView> streamViews(ReservationFilter filter) {
+        return entityManager.createQuery(viewsQuery(null, filter))
+                .setHint(HibernateHints.HINT_FETCH_SIZE, EXPORT_FETCH_SIZE)
+                .getResultStream();
+    }
+
+    private CriteriaQuery<ReservationView> viewsQuery(String after, ReservationFilter filter) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ReservationView> query = cb.createQuery(ReservationView.class);
+        Root<Reservation> r = query.from(Reservation.class);
+
+        List<Predicate> where = new ArrayList<>();
+        if (after != null) {
+            where.add(cb.greaterThan(r.get("id"), after));
+        }
+        if (filter.status() != null) {
+            where.add(cb.equal(r.get("status"), filter.status()));
+        }
+        if (filter.paymentMode() != null) {
+            where.add(cb.equal(r.get("paymentMode"), filter.paymentMode()));
+        }
+        if (filter.roomNumber() != null) {
+            where.add(cb.equal(r.get("roomNumber"), filter.roomNumber()));
+        }
+        if (filter.from() != null) {
+            where.add(cb.greaterThan(r.<LocalDate>get("endDate"), filter.from()));
+        }
+        if (filter.to() != null) {
+            where.add(cb.lessThan(r.<LocalDate>get("startDate"), filter.to()));
+        }
+
+        query.select(cb.construct(ReservationView.class, r.get("id"), r.get("customerName"), r.get("roomNumber"),
+                        r.get("startDate"), r.get("endDate"), r.get("segment"), r.get("paymentMode"),
+                        r.get("status"), r.get("createdAt")))
+                .where(where.toArray(Predicate[]::new))
+                .orderBy(cb.asc(r.get("id")));
+        return query;
+    }
+}
@@ -0,0 +1,23 @@
+package com.marvel.hospitality.reservationservice.repository;
+
+
+import com.marvel.hospitality.reservationservice.entity.RoomLock;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+
+import java.util.Optional;
+
+
+public interface RoomLockRepository extends JpaRepository<RoomLock, String> {
+
+    /**
+     * Locks the room's row until the transaction ends; empty, and nothing locked, if the room has no row yet.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select l from RoomLock l where l.roomNumber = :room")
+    Optional<RoomLock> lock(@Param("room") String roomNumber);
+}
@@ -1,11 +1,15 @@
 package com.marvel.hospitality.reservationservice.scheduler;
 
 
-import com.marvel.hospitality.reservationservice.entity.Reservation;
-import com.marvel.hospitality.reservationservice.model.ReservationStatus;
-import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import com.marvel.hospitality.reservationservice.availability.RoomAvailabilityIndex;
+import com.marvel.hospitality.reservationservice.dto.OverdueChunk;
+import com.marvel.hospitality.reservationservice.dto.RoomStay;
+import com.marvel.hospitality.reservationservice.service.ReservationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
@@ -14,44 +18,56 @@ import java.time.LocalDate;
 import java.util.List;
 
 
-import static com.marvel.hospitality.reservationservice.model.PaymentMode.BANK_TRANSFER;
-import static com.marvel.hospitality.reservationservice.model.ReservationStatus.PENDING_PAYMENT;
-
-
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class ReservationScheduler {
 
 
-    private final ReservationRepository reservationRepository;
+    private final ReservationService reservationService;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${cancel.chunk-size:500}")
+    private int chunkSize;
 
 
+    /**
+     * Cancels overdue bank-transfer reservations chunk by chunk, each chunk being one bulk UPDATE in its
+     * own transaction, so memory stays bounded by the chunk size however many rows are overdue. The loop
+     * goes on while chunks are selected, even if all of one was confirmed concurrently and nothing was cancelled.
+     * A run is timed in {@code reservation.cancel.overdue} (tagged {@code outcome}) and the cancelled rows
+     * are counted in {@code reservation.cancel.overdue.rows}.
+     */
     @Scheduled(cron = "${cancel.cron:0 0 0 * * ?}")
     public void cancelOverdueBankTransferReservations() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "success";
         try {
             LocalDate threshold = LocalDate.now().plusDays(2);
             log.info("Starting overdue cancellation check (threshold: {})", threshold);
 
 
-            List<Reservation> overdue = reservationRepository.findByStatusAndPaymentModeAndStartDateLessThanEqual(
-                    PENDING_PAYMENT, BANK_TRANSFER, threshold);
-
-
             int count = 0;
-            for (Reservation res : overdue) {
-                try {
-                    res.setStatus(ReservationStatus.CANCELLED);
-                    reservationRepository.save(res);
-                    count++;
-                    log.info("Cancelled reservation {}", res.getId());
-                } catch (Exception e) {
-                    log.error("Failed to cancel reservation {} - continuing", res.getId(), e);
+            OverdueChunk chunk;
+            do {
+                chunk = reservationService.cancelOverdueBankTransfers(threshold, chunkSize);
+                List<RoomStay> cancelled = chunk.cancelled();
+                for (RoomStay stay : cancelled) {
+                    availabilityIndex.release(stay.roomNumber(), stay.startDate(), stay.endDate());
+                }
+                count += cancelled.size();
+                meterRegistry.counter("reservation.cancel.overdue.rows").increment(cancelled.size());
+                if (!cancelled.isEmpty()) {
+                    log.info("Cancelled reservations {}", cancelled.stream().map(RoomStay::reservationId).toList());
                 }
-            }
+            } while (chunk.selected() > 0);
             log.info("Overdue cancellation completed - processed {} reservations", count);
         } catch (Exception e) {
+            outcome = "failure";
             log.error("Overdue cancellation task failed - will retry next schedule", e);
+        } finally {
+            sample.stop(meterRegistry.timer("reservation.cancel.overdue", "outcome", outcome));
         }
     }
 }
@@ -1,11 +1,28 @@
 package com.marvel.hospitality.reservationservice.service;
 
 
+import com.marvel.hospitality.reservationservice.dto.BankTransferPayment;
+import com.marvel.hospitality.reservationservice.dto.BatchReservationResponse;
+import com.marvel.hospitality.reservationservice.dto.ReservationFilter;
+import com.marvel.hospitality.reservationservice.dto.ReservationPage;
 import com.marvel.hospitality.reservationservice.dto.ReservationRequest;
 import com.marvel.hospitality.reservationservice.dto.ReservationResponse;
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import com.marvel.hospitality.reservationservice.dto.OverdueChunk;
+import com.marvel.hospitality.reservationservice.model.BatchMode;
+
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 
 
 public interface ReservationService {
     ReservationResponse createReservation(ReservationRequest request);
-    void confirmBankTransferPayment(String reservationId);
+    BatchReservationResponse createReservations(List<ReservationRequest> requests, BatchMode mode);
+    void confirmBankTransferPayment(BankTransferPayment payment);
+    void confirmBankTransferPayments(Collection<BankTransferPayment> payments);
+    OverdueChunk cancelOverdueBankTransfers(LocalDate threshold, int limit);
+    ReservationView getReservation(String reservationId);
+    ReservationPage findReservations(ReservationFilter filter, String after, int limit);
 }
@@ -1,24 +1,49 @@
 package com.marvel.hospitality.reservationservice.service.impl;
 
 
-import com.marvel.hospitality.reservationservice.client.CreditCardClient;
+import com.marvel.hospitality.reservationservice.availability.RoomAvailabilityIndex;
+import com.marvel.hospitality.reservationservice.availability.RoomBookings;
+import com.marvel.hospitality.reservationservice.cache.ReservationCache;
+import com.marvel.hospitality.reservationservice.client.CachingPaymentVerifier;
+import com.marvel.hospitality.reservationservice.dedup.ProcessedPayments;
 import com.marvel.hospitality.reservationservice.dto.*;
 import com.marvel.hospitality.reservationservice.entity.Reservation;
+import com.marvel.hospitality.reservationservice.model.BatchMode;
 import com.marvel.hospitality.reservationservice.model.PaymentConfirmationStatus;
 import com.marvel.hospitality.reservationservice.model.PaymentMode;
 import com.marvel.hospitality.reservationservice.model.ReservationStatus;
 import com.marvel.hospitality.reservationservice.exception.*;
 import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
 import com.marvel.hospitality.reservationservice.service.ReservationService;
+import io.github.resilience4j.retry.annotation.Retry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.client.HttpClientErrorException;
 
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
 
 import static com.marvel.hospitality.reservationservice.model.PaymentMode.CASH;
 import static com.marvel.hospitality.reservationservice.model.ReservationStatus.CONFIRMED;
@@ -30,11 +55,127 @@ import static com.marvel.hospitality.reservationservice.model.ReservationStatus.
 @RequiredArgsConstructor
 public class ReservationServiceImpl implements ReservationService {
 
+    static final int MAX_PAGE_SIZE = 100;
+
     private final ReservationRepository repository;
-    private final CreditCardClient creditCardClient;
+    private final CachingPaymentVerifier paymentVerifier;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomBookings roomBookings;
+    private final ProcessedPayments processedPayments;
+    private final ReservationCache reservationCache;
+    private final MeterRegistry meterRegistry;
 
-    @Transactional
+    /**
+     * Not transactional on purpose: the room is held in the availability index and the card payment
+     * is verified before any connection is taken, so a slow credit-card service never pins a JDBC
+     * connection. Only the final save runs in a transaction, where {@link RoomBookings} checks the
+     * stay against the reservations of every instance.
+     * Timed in {@code reservation.create}, tagged by {@code payment_mode} and {@code outcome}.
+     */
     public ReservationResponse createReservation(ReservationRequest request) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            Reservation reservation = prepareReservation(request, paymentVerifier::verifyPayment);
+            try {
+                roomBookings.save(reservation);
+            } catch (RuntimeException e) {
+                releaseRoom(reservation);
+                throw e;
+            }
+            settleRoom(reservation);
+            log.info("Created reservation {}", reservation.getId());
+            outcome = "created";
+
+
+            return new ReservationResponse(reservation.getId(), reservation.getStatus());
+        } catch (RuntimeException e) {
+            outcome = outcomeOf(e);
+            throw e;
+        } finally {
+            sample.stop(meterRegistry.timer("reservation.create",
+                    "payment_mode", String.valueOf(request.paymentMode()), "outcome", outcome));
+        }
+    }
+
+    private static String outcomeOf(RuntimeException e) {
+        return switch (e) {
+            case ReservationValidationException ignored -> "invalid_request";
+            case RoomUnavailableException ignored -> "room_unavailable";
+            case PaymentRejectedException ignored -> "payment_rejected";
+            case InvalidPaymentReferenceException ignored -> "invalid_payment_reference";
+            case CreditCardServiceUnavailableException ignored -> "payment_service_unavailable";
+            default -> "error";
+        };
+    }
+
+
+    public BatchReservationResponse createReservations(List<ReservationRequest> requests, BatchMode mode) {
+        List<Reservation> accepted = new ArrayList<>(requests.size());
+        BatchReservationResult[] results = new BatchReservationResult[requests.size()];
+        Map<String, CompletableFuture<PaymentStatusResponse>> verifications = startCardVerifications(requests);
+
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                accepted.add(prepareReservation(requests.get(i), ref -> verifications.get(ref).join()));
+            } catch (ReservationValidationException | PaymentRejectedException | InvalidPaymentReferenceException
+                     | CreditCardServiceUnavailableException | RoomUnavailableException e) {
+                if (mode == BatchMode.ALL_OR_NOTHING) {
+                    accepted.forEach(this::releaseRoom);
+                    log.warn("Rejected reservation batch of {} - item {} failed: {}", requests.size(), i, e.getMessage());
+                    throw e;
+                }
+                results[i] = BatchReservationResult.failed(i, e.getMessage());
+            }
+        }
+
+        Set<Reservation> taken = Collections.newSetFromMap(new IdentityHashMap<>());
+        try {
+            taken.addAll(roomBookings.saveAll(accepted, mode));
+        } catch (RuntimeException e) {
+            accepted.forEach(this::releaseRoom);
+            throw e;
+        }
+
+        int next = 0;
+        for (int i = 0; i < results.length; i++) {
+            if (results[i] == null) {
+                Reservation reservation = accepted.get(next++);
+                if (taken.contains(reservation)) {
+                    releaseRoom(reservation);
+                    RoomUnavailableException e = RoomUnavailableException.booked(
+                            reservation.getRoomNumber(), reservation.getStartDate(), reservation.getEndDate());
+                    results[i] = BatchReservationResult.failed(i, e.getMessage());
+                } else {
+                    settleRoom(reservation);
+                    results[i] = BatchReservationResult.created(i, reservation.getId(), reservation.getStatus());
+                }
+            }
+        }
+        log.info("Created {} of {} reservations in batch ({})", accepted.size() - taken.size(), requests.size(), mode);
+        return new BatchReservationResponse(List.of(results));
+    }
+
+
+    /**
+     * Starts every card verification of the batch up front so that they run concurrently
+     * instead of one blocking call after another.
+     */
+    private Map<String, CompletableFuture<PaymentStatusResponse>> startCardVerifications(
+            List<ReservationRequest> requests) {
+        Map<String, CompletableFuture<PaymentStatusResponse>> verifications = new HashMap<>();
+        for (ReservationRequest request : requests) {
+            String ref = request.paymentReference();
+            if (request.paymentMode() == PaymentMode.CREDIT_CARD && ref != null && !ref.isBlank()) {
+                verifications.computeIfAbsent(ref, paymentVerifier::verifyPaymentAsync);
+            }
+        }
+        return verifications;
+    }
+
+
+    private Reservation prepareReservation(ReservationRequest request,
+                                           Function<String, PaymentStatusResponse> verifyPayment) {
         validateDates(request.startDate(), request.endDate());
 
 
@@ -51,30 +192,49 @@ public class ReservationServiceImpl implements ReservationService {
 
 
         if (request.paymentMode() == PaymentMode.CREDIT_CARD) {
-            handleCreditCardPayment(reservation, request.paymentReference());
+            validatePaymentReference(request.paymentReference());
         }
 
-        repository.save(reservation);
-        log.info("Created reservation {}", reservation.getId());
+        availabilityIndex.reserve(reservation.getRoomNumber(), reservation.getStartDate(), reservation.getEndDate());
+        if (request.paymentMode() == PaymentMode.CREDIT_CARD) {
+            try {
+                handleCreditCardPayment(reservation, request.paymentReference(), verifyPayment);
+            } catch (RuntimeException e) {
+                releaseRoom(reservation);
+                throw e;
+            }
+        }
+        return reservation;
+    }
+
+
+    private void releaseRoom(Reservation reservation) {
+        availabilityIndex.release(reservation.getRoomNumber(), reservation.getStartDate(), reservation.getEndDate());
+    }
 
 
-        return new ReservationResponse(reservation.getId(), reservation.getStatus());
+    private void settleRoom(Reservation reservation) {
+        availabilityIndex.settle(reservation.getRoomNumber(), reservation.getStartDate(), reservation.getEndDate());
     }
 
 
-    private void validateDates(LocalDate start, LocalDate end) {
+    static void validateDates(LocalDate start, LocalDate end) {
         if (!end.isAfter(start)) throw new ReservationValidationException("Reservation End date must be after Start date");
         long days = ChronoUnit.DAYS.between(start, end);
         if (days > 30) throw new ReservationValidationException("The Max reservation duration is 30 days");
     }
 
 
-    private void handleCreditCardPayment(Reservation res, String ref) {
+    private void validatePaymentReference(String ref) {
         if (ref == null || ref.isBlank()) {
             throw new ReservationValidationException("paymentReference is required for CreditCard payments");
         }
+    }
 
-        PaymentStatusResponse paymentStatusResponse = getStatusResponse(ref);
+
+    private void handleCreditCardPayment(Reservation res, String ref,
+                                         Function<String, PaymentStatusResponse> verifyPayment) {
+        PaymentStatusResponse paymentStatusResponse = getStatusResponse(ref, verifyPayment);
 
         if (paymentStatusResponse.status() != PaymentConfirmationStatus.CONFIRMED) {
             throw new PaymentRejectedException("The card payment was REJECTED");
@@ -82,31 +242,180 @@ public class ReservationServiceImpl implements ReservationService {
         res.setStatus(ReservationStatus.CONFIRMED);
     }
 
-    private PaymentStatusResponse getStatusResponse(String ref) {
+    private PaymentStatusResponse getStatusResponse(String ref, Function<String, PaymentStatusResponse> verifyPayment) {
         try {
-             return creditCardClient.verifyPayment(ref);
-        } catch (HttpClientErrorException clientErrorException) {
-            throw new InvalidPaymentReferenceException("Payment Reference was not found or invalid", clientErrorException);
-        } catch(Exception e) {
-            throw new CreditCardServiceUnavailableException("Credit card service call failed", e);
+             return verifyPayment.apply(ref);
+        } catch (Exception e) {
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof HttpClientErrorException) {
+                throw new InvalidPaymentReferenceException("Payment Reference was not found or invalid", cause);
+            }
+            throw new CreditCardServiceUnavailableException("Credit card service call failed", cause);
         }
     }
 
 
+    /**
+     * Applies a bank transfer at most once per payment id: a redelivered update is dropped before the
+     * reservation is touched, and the payment is recorded as processed in the same transaction as
+     * the confirmation. The confirmation itself is one conditional UPDATE, so concurrent consumers
+     * cannot both confirm the same row; the status is only read back to explain a skipped update.
+     * Timed in {@code payment.update.confirm}, tagged {@code outcome} confirmed, skipped, not_found or duplicate.
+     */
     @Transactional
-    public void confirmBankTransferPayment(String reservationId) {
-        Reservation res = repository.findById(reservationId).orElse(null);
-        if (res == null) {
-            log.warn("Reservation {} not found - skipping", reservationId);
-            return;
+    public void confirmBankTransferPayment(BankTransferPayment payment) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "error";
+        try {
+            outcome = confirm(payment);
+        } finally {
+            sample.stop(meterRegistry.timer("payment.update.confirm", "outcome", outcome));
         }
-        if (res.getStatus() == PENDING_PAYMENT &&
-            res.getPaymentMode() == PaymentMode.BANK_TRANSFER) {
-            res.setStatus(CONFIRMED);
-            repository.save(res);
+    }
+
+    private String confirm(BankTransferPayment payment) {
+        if (processedPayments.isProcessed(payment.paymentId())) {
+            log.info("Skipped duplicate payment {} for {}", payment.paymentId(), payment.reservationId());
+            return "duplicate";
+        }
+        String reservationId = payment.reservationId();
+        String outcome;
+        if (repository.confirmPendingBankTransfer(reservationId, LocalDateTime.now()) == 1) {
+            reservationCache.evictAfterCommit(reservationId);
             log.info("Confirmed {}", reservationId);
+            outcome = "confirmed";
         } else {
-            log.info("Skipped {} (already {})", reservationId, res.getStatus());
+            Optional<ReservationStatus> status = repository.findStatusById(reservationId);
+            if (status.isPresent()) {
+                log.info("Skipped {} (already {})", reservationId, status.get());
+                outcome = "skipped";
+            } else {
+                log.warn("Reservation {} not found - skipping", reservationId);
+                outcome = "not_found";
+            }
+        }
+        processedPayments.markProcessed(payment);
+        return outcome;
+    }
+
+
+    /**
+     * Confirms the pending bank transfers of a batch through their entities. A reservation changed
+     * concurrently (typically cancelled by the overdue job) fails the flush on its version; the whole
+     * transaction is then retried by the {@code reservationConflict} retry, whose next attempt reads
+     * the new status and skips it instead of overwriting it.
+     */
+    @Retry(name = "reservationConflict")
+    @Transactional
+    public void confirmBankTransferPayments(Collection<BankTransferPayment> payments) {
+        List<BankTransferPayment> fresh = withoutDuplicates(payments);
+        if (fresh.size() < payments.size()) {
+            log.info("Skipped {} duplicate payments in batch", payments.size() - fresh.size());
+        }
+        if (fresh.isEmpty()) {
+            return;
+        }
+        List<String> reservationIds = fresh.stream().map(BankTransferPayment::reservationId).toList();
+        Set<String> requested = new LinkedHashSet<>(reservationIds);
+        List<Reservation> found = repository.findAllById(requested);
+        List<Reservation> confirmed = new ArrayList<>(found.size());
+        for (Reservation res : found) {
+            if (res.getStatus() == PENDING_PAYMENT && res.getPaymentMode() == PaymentMode.BANK_TRANSFER) {
+                res.setStatus(CONFIRMED);
+                confirmed.add(res);
+            }
+        }
+        try {
+            repository.saveAllAndFlush(confirmed);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            countConflicts("confirm_batch", 1);
+            log.warn("Reservation {} changed concurrently - retrying batch", e.getIdentifier());
+            throw e;
+        }
+        reservationCache.evictAfterCommit(confirmed.stream().map(Reservation::getId).toList());
+        if (found.size() < requested.size()) {
+            Set<String> missing = new LinkedHashSet<>(requested);
+            found.forEach(res -> missing.remove(res.getId()));
+            log.warn("Reservations {} not found - skipping", missing);
+        }
+        processedPayments.markProcessed(fresh);
+        log.info("Confirmed {} of {} reservations in batch", confirmed.size(), reservationIds.size());
+    }
+
+    /**
+     * Drops payments already processed, and repeats of the same payment id within the batch.
+     */
+    private List<BankTransferPayment> withoutDuplicates(Collection<BankTransferPayment> payments) {
+        Set<String> processed = processedPayments.processedOf(
+                payments.stream().map(BankTransferPayment::paymentId).toList());
+        Set<String> seen = new HashSet<>();
+        List<BankTransferPayment> fresh = new ArrayList<>(payments.size());
+        for (BankTransferPayment payment : payments) {
+            String paymentId = payment.paymentId();
+            if (paymentId == null || (!processed.contains(paymentId) && seen.add(paymentId))) {
+                fresh.add(payment);
+            }
         }
+        return fresh;
+    }
+
+
+    /**
+     * Cancels up to {@code limit} pending bank-transfer reservations starting on or before the threshold,
+     * with one projection query and one bulk UPDATE in a single transaction. Reservations confirmed
+     * between the two statements keep their status, are left out of the cancelled stays and are counted as conflicts.
+     *
+     * @return the number of reservations selected, zero once nothing is overdue any more, and the stays cancelled
+     */
+    @Transactional
+    public OverdueChunk cancelOverdueBankTransfers(LocalDate threshold, int limit) {
+        List<RoomStay> overdue = repository.findStaysStartingOnOrBefore(
+                PENDING_PAYMENT, PaymentMode.BANK_TRANSFER, threshold, Limit.of(limit));
+        if (overdue.isEmpty()) {
+            return new OverdueChunk(0, overdue);
+        }
+        List<String> ids = overdue.stream().map(RoomStay::reservationId).toList();
+        int updated = repository.updateStatus(ids, PENDING_PAYMENT, ReservationStatus.CANCELLED, LocalDateTime.now());
+        reservationCache.evictAfterCommit(ids);
+        if (updated == ids.size()) {
+            return new OverdueChunk(ids.size(), overdue);
+        }
+        countConflicts("cancel", ids.size() - updated);
+        Set<String> cancelled = new HashSet<>(repository.findIdsWithStatus(ids, ReservationStatus.CANCELLED));
+        return new OverdueChunk(ids.size(),
+                overdue.stream().filter(stay -> cancelled.contains(stay.reservationId())).toList());
+    }
+
+    /**
+     * Served from {@link ReservationCache}; the status changes below evict the reservations they touch.
+     */
+    public ReservationView getReservation(String reservationId) {
+        return reservationCache.get(reservationId, repository::findViewById)
+                .orElseThrow(() -> new ReservationNotFoundException("Reservation " + reservationId + " not found"));
+    }
+
+
+    /**
+     * Returns the reservations after the {@code after} cursor in id order, as projections. One extra row is
+     * fetched to tell whether another page follows without a count query.
+     */
+    public ReservationPage findReservations(ReservationFilter filter, String after, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new ReservationValidationException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        List<ReservationView> rows = repository.findViewsAfter(after, filter, Limit.of(limit + 1));
+        if (rows.size() <= limit) {
+            return new ReservationPage(rows, null);
+        }
+        List<ReservationView> page = rows.subList(0, limit);
+        return new ReservationPage(page, page.getLast().reservationId());
+    }
+
+
+    /**
+     * Counts reservations whose update lost a race with another writer, in {@code reservation.update.conflicts}.
+     */
+    private void countConflicts(String operation, int conflicts) {
+        meterRegistry.counter("reservation.update.conflicts", "operation", operation).increment(conflicts);
     }
 }
@@ -0,0 +1,13 @@
+-- Payment updates already applied, matching the ProcessedPayment entity and its @Index.
+-- Hibernate creates them when ddl-auto is create/update; run this script on databases whose schema
+-- is managed by hand. Rows are purged by processed_at once older than app.kafka.payment-update.dedup.retention.
+
+CREATE TABLE IF NOT EXISTS processed_payments (
+    payment_id     VARCHAR(255) PRIMARY KEY,
+    reservation_id VARCHAR(255),
+    processed_at   TIMESTAMP
+);
+
+-- Retention purge: processed_at < ?
+CREATE INDEX IF NOT EXISTS idx_processed_payments_processed_at
+    ON processed_payments (processed_at);
@@ -0,0 +1,17 @@
+-- Secondary indexes of the reservations table, matching the @Index declarations on Reservation.
+-- Hibernate creates them when ddl-auto is create/update; run this script on databases whose schema
+-- is managed by hand. On PostgreSQL, prefer CREATE INDEX CONCURRENTLY on a live table.
+
+-- Overdue bank-transfer cancellation: status = ? AND payment_mode = ? AND start_date <= ?
+CREATE INDEX IF NOT EXISTS idx_reservations_status_mode_start
+    ON reservations (status, payment_mode, start_date);
+
+-- Room availability lookups: room_number = ? AND start_date < ? AND end_date > ?
+CREATE INDEX IF NOT EXISTS idx_reservations_room_dates
+    ON reservations (room_number, start_date, end_date);
+
+-- Keyset pages of GET /reservations filtered by status or room: status = ? AND id > ? ORDER BY id
+CREATE INDEX IF NOT EXISTS idx_reservations_status_id
+    ON reservations (status, id);
+CREATE INDEX IF NOT EXISTS idx_reservations_room_id
+    ON reservations (room_number, id);
@@ -0,0 +1,8 @@
+-- Optimistic-lock column of the reservations table, matching @Version on Reservation.
+-- Hibernate adds it when ddl-auto is update, but leaves existing rows with a NULL version; run this
+-- script on databases whose schema is managed by hand, or to backfill rows created before the column.
+
+ALTER TABLE reservations ADD COLUMN IF NOT EXISTS version BIGINT;
+UPDATE reservations SET version = 0 WHERE version IS NULL;
+ALTER TABLE reservations ALTER COLUMN version SET DEFAULT 0;
+ALTER TABLE reservations ALTER COLUMN version SET NOT NULL;
@@ -0,0 +1,7 @@
+-- Lock rows serializing reservation saves per room across instances, matching the RoomLock entity.
+-- Hibernate creates the table when ddl-auto is create/update; run this script on databases whose schema
+-- is managed by hand. Rows are inserted on the first booking of each room and never deleted.
+
+CREATE TABLE IF NOT EXISTS room_locks (
+    room_number VARCHAR(255) PRIMARY KEY
+);
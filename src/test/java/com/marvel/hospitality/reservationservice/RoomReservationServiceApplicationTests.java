@@ -5,13 +5,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
 
 
-@SpringBootTest
+@SpringBootTest(properties = "reservation.id.node-id=0")
 class RoomReservationServiceApplicationTests {
     @Test
     void contextLoads() {}
 
     @Test
     void should_run_main_method_without_exceptions() {
-        RoomReservationServiceApplication.main(new String[]{});
+        RoomReservationServiceApplication.main(new String[]{"--reservation.id.node-id=0"});
     }
 }
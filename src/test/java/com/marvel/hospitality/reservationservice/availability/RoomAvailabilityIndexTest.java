@@ -0,0 +1,153 @@
+package com.marvel.hospitality.reservationservice.availability;
+
+import com.marvel.hospitality.reservationservice.dto.RoomStay;
+import com.marvel.hospitality.reservationservice.exception.RoomUnavailableException;
+import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class RoomAvailabilityIndexTest {
+
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @Mock
+    private ReservationRepository repository;
+
+    private RoomAvailabilityIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new RoomAvailabilityIndex(repository, new RoomLockStripes(16, new SimpleMeterRegistry()));
+    }
+
+    @Test
+    void reload_marksStoredStaysAsBooked() {
+        when(repository.findStaysEndingAfter(eq(ReservationStatus.CANCELLED), any()))
+                .thenReturn(List.of(
+                        new RoomStay("RES00001", "101", TODAY.plusDays(1), TODAY.plusDays(4)),
+                        new RoomStay("RES00002", null, TODAY, TODAY.plusDays(1))));
+
+        index.reload();
+
+        assertThat(index.isAvailable("101", TODAY.plusDays(3), TODAY.plusDays(5))).isFalse();
+        assertThat(index.isAvailable("101", TODAY.plusDays(4), TODAY.plusDays(6))).isTrue();
+        assertThat(index.isAvailable("102", TODAY.plusDays(1), TODAY.plusDays(4))).isTrue();
+    }
+
+    @Test
+    void reload_ignoresNightsAlreadyInThePast() {
+        when(repository.findStaysEndingAfter(eq(ReservationStatus.CANCELLED), any()))
+                .thenReturn(List.of(new RoomStay("RES00001", "101", TODAY.minusDays(3), TODAY.plusDays(1))));
+
+        index.reload();
+
+        assertThat(index.isAvailable("101", TODAY, TODAY.plusDays(1))).isFalse();
+        assertThat(index.isAvailable("101", TODAY.plusDays(1), TODAY.plusDays(2))).isTrue();
+    }
+
+    @Test
+    void reserve_rejectsOverlappingStayOnSameRoom() {
+        index.reserve("101", TODAY.plusDays(1), TODAY.plusDays(5));
+
+        assertThatThrownBy(() -> index.reserve("101", TODAY.plusDays(4), TODAY.plusDays(8)))
+                .isInstanceOf(RoomUnavailableException.class)
+                .hasMessageContaining("Room 101 is already booked");
+        assertThatThrownBy(() -> index.reserve("101", TODAY.plusDays(2), TODAY.plusDays(3)))
+                .isInstanceOf(RoomUnavailableException.class);
+    }
+
+    @Test
+    void reserve_allowsBackToBackStaysAndOtherRooms() {
+        index.reserve("101", TODAY.plusDays(1), TODAY.plusDays(5));
+
+        assertThatNoException().isThrownBy(() -> index.reserve("101", TODAY.plusDays(5), TODAY.plusDays(7)));
+        assertThatNoException().isThrownBy(() -> index.reserve("101", TODAY, TODAY.plusDays(1)));
+        assertThatNoException().isThrownBy(() -> index.reserve("102", TODAY.plusDays(1), TODAY.plusDays(5)));
+    }
+
+    @Test
+    void release_freesTheNightsOfTheStay() {
+        index.reserve("101", TODAY.plusDays(1), TODAY.plusDays(5));
+
+        index.release("101", TODAY.plusDays(1), TODAY.plusDays(5));
+
+        assertThat(index.isAvailable("101", TODAY.plusDays(1), TODAY.plusDays(5))).isTrue();
+        assertThatNoException().isThrownBy(() -> index.reserve("101", TODAY.plusDays(2), TODAY.plusDays(4)));
+    }
+
+    @Test
+    void reserve_staysCancelledElsewhere_rereadsTheRoomInsteadOfRefusing() {
+        index.reserve("101", TODAY.plusDays(1), TODAY.plusDays(5));
+        index.settle("101", TODAY.plusDays(1), TODAY.plusDays(5));
+        when(repository.findRoomStaysEndingAfter(eq("101"), eq(ReservationStatus.CANCELLED), any()))
+                .thenReturn(List.of());
+
+        assertThatNoException().isThrownBy(() -> index.reserve("101", TODAY.plusDays(2), TODAY.plusDays(4)));
+        assertThat(index.isAvailable("101", TODAY.plusDays(2), TODAY.plusDays(4))).isFalse();
+    }
+
+    @Test
+    void reserve_rereadingTheRoom_keepsStaysNotSavedYet() {
+        index.reserve("101", TODAY.plusDays(1), TODAY.plusDays(3));
+        when(repository.findRoomStaysEndingAfter(eq("101"), eq(ReservationStatus.CANCELLED), any()))
+                .thenReturn(List.of(new RoomStay("RES00002", "101", TODAY.plusDays(5), TODAY.plusDays(7))));
+
+        assertThatThrownBy(() -> index.reserve("101", TODAY.plusDays(2), TODAY.plusDays(4)))
+                .isInstanceOf(RoomUnavailableException.class);
+        assertThat(index.isAvailable("101", TODAY.plusDays(1), TODAY.plusDays(3))).isFalse();
+        assertThat(index.isAvailable("101", TODAY.plusDays(5), TODAY.plusDays(7))).isFalse();
+    }
+
+    @Test
+    void release_unknownRoom_isNoOp() {
+        assertThatNoException().isThrownBy(() -> index.release("999", TODAY, TODAY.plusDays(1)));
+    }
+
+    @Test
+    void reserve_concurrentOverlappingRequests_onlyOneWins() throws Exception {
+        int threads = 16;
+        AtomicInteger winners = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                int shift = i % 3;
+                executor.submit(() -> {
+                    start.await();
+                    try {
+                        index.reserve("101", TODAY.plusDays(1 + shift), TODAY.plusDays(5 + shift));
+                        winners.incrementAndGet();
+                    } catch (RoomUnavailableException e) {
+                        conflicts.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        assertThat(winners.get()).isEqualTo(1);
+        assertThat(conflicts.get()).isEqualTo(threads - 1);
+    }
+}
@@ -0,0 +1,137 @@
+package com.marvel.hospitality.reservationservice.availability;
+
+import com.marvel.hospitality.reservationservice.entity.Reservation;
+import com.marvel.hospitality.reservationservice.entity.RoomLock;
+import com.marvel.hospitality.reservationservice.exception.RoomUnavailableException;
+import com.marvel.hospitality.reservationservice.model.BatchMode;
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
+import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import com.marvel.hospitality.reservationservice.repository.RoomLockRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatNoException;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Runs without a test transaction, so that every save commits like it does between two instances.
+ */
+@DataJpaTest
+@Import(RoomBookings.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class RoomBookingsTest {
+
+    private static final LocalDate DAY = LocalDate.now().plusDays(10);
+
+    @Autowired
+    private RoomBookings roomBookings;
+    @Autowired
+    private ReservationRepository reservationRepository;
+    @Autowired
+    private RoomLockRepository roomLockRepository;
+
+    @AfterEach
+    void cleanUp() {
+        reservationRepository.deleteAll();
+        roomLockRepository.deleteAll();
+    }
+
+    @Test
+    void save_rejectsStayOverlappingAStoredOne() {
+        reservationRepository.save(stay("101", DAY, DAY.plusDays(4), ReservationStatus.CONFIRMED));
+
+        assertThatThrownBy(() -> roomBookings.save(stay("101", DAY.plusDays(3), DAY.plusDays(6), ReservationStatus.CONFIRMED)))
+                .isInstanceOf(RoomUnavailableException.class)
+                .hasMessageContaining("Room 101 is already booked");
+        assertThat(reservationRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void save_allowsBackToBackStaysOtherRoomsAndCancelledNights() {
+        reservationRepository.save(stay("101", DAY, DAY.plusDays(4), ReservationStatus.CONFIRMED));
+        reservationRepository.save(stay("102", DAY, DAY.plusDays(4), ReservationStatus.CANCELLED));
+
+        assertThatNoException().isThrownBy(() -> {
+            roomBookings.save(stay("101", DAY.plusDays(4), DAY.plusDays(6), ReservationStatus.CONFIRMED));
+            roomBookings.save(stay("102", DAY.plusDays(1), DAY.plusDays(3), ReservationStatus.PENDING_PAYMENT));
+            roomBookings.save(stay("103", DAY, DAY.plusDays(4), ReservationStatus.CONFIRMED));
+        });
+        assertThat(roomLockRepository.findAll()).extracting(RoomLock::getId).containsExactlyInAnyOrder("101", "102", "103");
+    }
+
+    @Test
+    void saveAll_perItem_savesTheFreeStaysAndReturnsTheOthers() {
+        reservationRepository.save(stay("101", DAY, DAY.plusDays(4), ReservationStatus.CONFIRMED));
+        Reservation taken = stay("101", DAY.plusDays(2), DAY.plusDays(3), ReservationStatus.CONFIRMED);
+        Reservation free = stay("102", DAY, DAY.plusDays(4), ReservationStatus.CONFIRMED);
+
+        assertThat(roomBookings.saveAll(List.of(taken, free), BatchMode.PER_ITEM)).containsExactly(taken);
+        assertThat(reservationRepository.existsById(free.getId())).isTrue();
+        assertThat(reservationRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    void saveAll_allOrNothing_savesNoneWhenOneOverlaps() {
+        reservationRepository.save(stay("101", DAY, DAY.plusDays(4), ReservationStatus.CONFIRMED));
+
+        assertThatThrownBy(() -> roomBookings.saveAll(List.of(
+                stay("102", DAY, DAY.plusDays(4), ReservationStatus.CONFIRMED),
+                stay("101", DAY.plusDays(2), DAY.plusDays(3), ReservationStatus.CONFIRMED)), BatchMode.ALL_OR_NOTHING))
+                .isInstanceOf(RoomUnavailableException.class);
+        assertThat(reservationRepository.count()).isEqualTo(1);
+    }
+
+    @Test
+    void save_concurrentOverlappingStaysOnANewRoom_onlyOneIsSaved() throws Exception {
+        int threads = 4;
+        AtomicInteger saved = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+            for (int i = 0; i < threads; i++) {
+                int shift = i;
+                executor.submit(() -> {
+                    start.await();
+                    try {
+                        roomBookings.save(stay("201", DAY.plusDays(shift), DAY.plusDays(shift + 5), ReservationStatus.CONFIRMED));
+                        saved.incrementAndGet();
+                    } catch (RoomUnavailableException e) {
+                        refused.incrementAndGet();
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+        }
+
+        assertThat(saved.get()).isEqualTo(1);
+        assertThat(refused.get()).isEqualTo(threads - 1);
+        assertThat(reservationRepository.count()).isEqualTo(1);
+    }
+
+    private static Reservation stay(String roomNumber, LocalDate start, LocalDate end, ReservationStatus status) {
+        return Reservation.builder()
+                .customerName("Guest")
+                .roomNumber(roomNumber)
+                .startDate(start)
+                .endDate(end)
+                .paymentMode(PaymentMode.CASH)
+                .status(status)
+                .build();
+    }
+}
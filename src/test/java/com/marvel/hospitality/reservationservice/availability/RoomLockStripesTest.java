@@ -0,0 +1,179 @@
+package com.marvel.hospitality.reservationservice.availability;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RoomLockStripesTest {
+
+    private static final int THREADS = 8;
+    private static final int BOOKINGS_PER_THREAD = 25;
+
+    private MeterRegistry meterRegistry;
+    private RoomLockStripes stripes;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        stripes = new RoomLockStripes(64, meterRegistry);
+    }
+
+    @Test
+    void stripeCount_isRoundedUpToPowerOfTwo() {
+        assertThat(new RoomLockStripes(1, meterRegistry).stripeCount()).isEqualTo(1);
+        assertThat(new RoomLockStripes(48, meterRegistry).stripeCount()).isEqualTo(64);
+        assertThat(new RoomLockStripes(64, meterRegistry).stripeCount()).isEqualTo(64);
+        assertThatThrownBy(() -> new RoomLockStripes(0, meterRegistry))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sameRoom_isSerialized() throws Exception {
+        int[] unsafeCounter = {0};
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                executor.submit(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        stripes.withLock("101", () -> unsafeCounter[0]++);
+                    }
+                });
+            }
+        }
+
+        assertThat(unsafeCounter[0]).isEqualTo(THREADS * 10_000);
+    }
+
+    @Test
+    void roomsOnDifferentStripes_doNotBlockEachOther() throws Exception {
+        List<String> rooms = roomsOnDistinctStripes(2);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+        AtomicBoolean otherRoomLocked = new AtomicBoolean();
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            executor.submit(() -> stripes.withLock(rooms.get(0), () -> {
+                held.countDown();
+                await(done);
+            }));
+            held.await();
+            executor.submit(() -> stripes.withLock(rooms.get(1), () -> otherRoomLocked.set(true))).get(1, TimeUnit.SECONDS);
+            done.countDown();
+        }
+
+        assertThat(otherRoomLocked).isTrue();
+        assertThat(meterRegistry.counter("reservation.room.lock.contended").count()).isZero();
+    }
+
+    @Test
+    void roomsOnSameStripe_contend() throws Exception {
+        List<String> rooms = roomsOnSameStripe(2);
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(2)) {
+            executor.submit(() -> stripes.withLock(rooms.get(0), () -> {
+                held.countDown();
+                await(done);
+            }));
+            held.await();
+            var other = executor.submit(() -> stripes.withLock(rooms.get(1), () -> { }));
+            Thread.sleep(100);
+            assertThat(other).isNotDone();
+            done.countDown();
+            other.get(1, TimeUnit.SECONDS);
+        }
+
+        assertThat(meterRegistry.counter("reservation.room.lock.contended").count()).isEqualTo(1);
+    }
+
+    @Test
+    void throughput_scalesWithNumberOfDistinctRooms() throws Exception {
+        long singleRoomNanos = runBookings(List.of("101"));
+        double singleRoomContended = meterRegistry.counter("reservation.room.lock.contended").count();
+
+        meterRegistry.clear();
+        stripes = new RoomLockStripes(64, meterRegistry);
+        List<String> hotelRooms = List.of("101", "102", "103", "104", "201", "202", "203", "204");
+        long distinctRoomsNanos = runBookings(hotelRooms);
+
+        assertThat(singleRoomContended).isPositive();
+        assertThat(meterRegistry.counter("reservation.room.lock.contended").count()).isLessThan(singleRoomContended);
+        assertThat(meterRegistry.counter("reservation.room.lock.acquisitions").count())
+                .isEqualTo(THREADS * BOOKINGS_PER_THREAD);
+        assertThat(distinctRoomsNanos).isLessThan(singleRoomNanos / 2);
+    }
+
+    private long runBookings(List<String> rooms) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        long began;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                String room = rooms.get(t % rooms.size());
+                executor.submit(() -> {
+                    await(start);
+                    for (int i = 0; i < BOOKINGS_PER_THREAD; i++) {
+                        stripes.withLock(room, () -> sleepMillis(1));
+                    }
+                });
+            }
+            began = System.nanoTime();
+            start.countDown();
+        }
+        return System.nanoTime() - began;
+    }
+
+    private List<String> roomsOnDistinctStripes(int count) {
+        List<String> rooms = new ArrayList<>();
+        Set<Integer> usedStripes = new HashSet<>();
+        for (int number = 100; rooms.size() < count; number++) {
+            String room = String.valueOf(number);
+            if (usedStripes.add(stripes.stripeOf(room))) {
+                rooms.add(room);
+            }
+        }
+        return rooms;
+    }
+
+    private List<String> roomsOnSameStripe(int count) {
+        List<String> rooms = new ArrayList<>();
+        int stripe = stripes.stripeOf("100");
+        for (int number = 100; rooms.size() < count; number++) {
+            String room = String.valueOf(number);
+            if (stripes.stripeOf(room) == stripe) {
+                rooms.add(room);
+            }
+        }
+        return rooms;
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
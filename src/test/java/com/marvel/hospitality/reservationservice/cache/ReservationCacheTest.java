@@ -0,0 +1,95 @@
+package com.marvel.hospitality.reservationservice.cache;
+
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
+import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import com.marvel.hospitality.reservationservice.model.RoomSegment;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReservationCacheTest {
+
+    private MeterRegistry meterRegistry;
+    private ReservationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ReservationCache(100, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void get_loadsOnceThenServesFromMemory() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("ID1", id -> { loads.incrementAndGet(); return Optional.of(view(id, ReservationStatus.CONFIRMED)); });
+        Optional<ReservationView> second = cache.get("ID1", id -> { loads.incrementAndGet(); return Optional.empty(); });
+
+        assertThat(second).map(ReservationView::status).contains(ReservationStatus.CONFIRMED);
+        assertThat(loads).hasValue(1);
+        assertThat(hitRatio()).isEqualTo(0.5);
+    }
+
+    @Test
+    void get_missingReservation_isNotCached() {
+        cache.get("NONE", id -> Optional.empty());
+
+        Optional<ReservationView> later = cache.get("NONE", id -> Optional.of(view(id, ReservationStatus.CONFIRMED)));
+
+        assertThat(later).isPresent();
+    }
+
+    @Test
+    void get_evictedWhileLoading_doesNotKeepLoadedView() {
+        cache.get("ID1", id -> {
+            cache.evictAfterCommit(id);
+            return Optional.of(view(id, ReservationStatus.PENDING_PAYMENT));
+        });
+
+        Optional<ReservationView> reloaded = cache.get("ID1", id -> Optional.of(view(id, ReservationStatus.CANCELLED)));
+
+        assertThat(reloaded).map(ReservationView::status).contains(ReservationStatus.CANCELLED);
+    }
+
+    @Test
+    void evictAfterCommit_inTransaction_waitsForCommit() {
+        cache.get("ID1", id -> Optional.of(view(id, ReservationStatus.PENDING_PAYMENT)));
+        TransactionSynchronizationManager.initSynchronization();
+
+        cache.evictAfterCommit("ID1");
+        Optional<ReservationView> beforeCommit = cache.get("ID1", id -> Optional.of(view(id, ReservationStatus.CONFIRMED)));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        Optional<ReservationView> afterCommit = cache.get("ID1", id -> Optional.of(view(id, ReservationStatus.CONFIRMED)));
+
+        assertThat(beforeCommit).map(ReservationView::status).contains(ReservationStatus.PENDING_PAYMENT);
+        assertThat(afterCommit).map(ReservationView::status).contains(ReservationStatus.CONFIRMED);
+    }
+
+    private double hitRatio() {
+        return meterRegistry.get("cache.hit.ratio").tag("cache", ReservationCache.CACHE_NAME).gauge().value();
+    }
+
+    private static ReservationView view(String id, ReservationStatus status) {
+        return new ReservationView(id, "John", "101", LocalDate.of(2100, 1, 1), LocalDate.of(2100, 1, 5),
+                RoomSegment.MEDIUM, PaymentMode.BANK_TRANSFER, status, null);
+    }
+}
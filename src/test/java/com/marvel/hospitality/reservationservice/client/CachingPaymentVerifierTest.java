@@ -0,0 +1,277 @@
+package com.marvel.hospitality.reservationservice.client;
+
+import com.marvel.hospitality.reservationservice.dto.PaymentStatusResponse;
+import com.marvel.hospitality.reservationservice.model.PaymentConfirmationStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpServerErrorException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CachingPaymentVerifierTest {
+
+    private static final PaymentStatusResponse CONFIRMED =
+            new PaymentStatusResponse("2025-01-01", PaymentConfirmationStatus.CONFIRMED);
+    private static final PaymentStatusResponse REJECTED =
+            new PaymentStatusResponse("2025-01-01", PaymentConfirmationStatus.REJECTED);
+
+    @Mock
+    private CreditCardClient creditCardClient;
+
+    private MeterRegistry meterRegistry;
+    private CachingPaymentVerifier verifier;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        verifier = new CachingPaymentVerifier(creditCardClient, Duration.ofMinutes(1), 100, meterRegistry);
+    }
+
+    @Test
+    void verifyPayment_repeatedReference_callsRemoteServiceOnce() {
+        when(creditCardClient.verifyPayment("REF-1")).thenReturn(CONFIRMED);
+
+        assertThat(verifier.verifyPayment("REF-1")).isEqualTo(CONFIRMED);
+        assertThat(verifier.verifyPayment("REF-1")).isEqualTo(CONFIRMED);
+
+        verify(creditCardClient, times(1)).verifyPayment("REF-1");
+        assertThat(gets("hit")).isEqualTo(1);
+        assertThat(gets("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void verifyPayment_rejectedOutcome_isCachedToo() {
+        when(creditCardClient.verifyPayment("REF-2")).thenReturn(REJECTED);
+
+        verifier.verifyPayment("REF-2");
+        assertThat(verifier.verifyPayment("REF-2")).isEqualTo(REJECTED);
+
+        verify(creditCardClient, times(1)).verifyPayment("REF-2");
+    }
+
+    @Test
+    void verifyPayment_transientError_isNotCached() {
+        when(creditCardClient.verifyPayment("REF-500"))
+                .thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE))
+                .thenReturn(CONFIRMED);
+
+        assertThatThrownBy(() -> verifier.verifyPayment("REF-500")).isInstanceOf(HttpServerErrorException.class);
+        assertThat(verifier.verifyPayment("REF-500")).isEqualTo(CONFIRMED);
+
+        verify(creditCardClient, times(2)).verifyPayment("REF-500");
+    }
+
+    @Test
+    void verifyPayment_responseWithoutStatus_isNotCached() {
+        when(creditCardClient.verifyPayment("REF-N")).thenReturn(new PaymentStatusResponse(null, null));
+
+        verifier.verifyPayment("REF-N");
+        verifier.verifyPayment("REF-N");
+
+        verify(creditCardClient, times(2)).verifyPayment("REF-N");
+    }
+
+    @Test
+    void verifyPaymentAsync_sharesOutcomesWithBlockingCalls() {
+        when(creditCardClient.verifyPaymentAsync("REF-ASYNC")).thenReturn(CompletableFuture.completedFuture(CONFIRMED));
+
+        assertThat(verifier.verifyPaymentAsync("REF-ASYNC").join()).isEqualTo(CONFIRMED);
+        assertThat(verifier.verifyPayment("REF-ASYNC")).isEqualTo(CONFIRMED);
+        assertThat(verifier.verifyPaymentAsync("REF-ASYNC").join()).isEqualTo(CONFIRMED);
+
+        verify(creditCardClient, times(1)).verifyPaymentAsync("REF-ASYNC");
+    }
+
+    @Test
+    void verifyPaymentAsync_failure_isNotCached() {
+        when(creditCardClient.verifyPaymentAsync("REF-FAIL"))
+                .thenReturn(CompletableFuture.failedFuture(new HttpServerErrorException(HttpStatus.BAD_GATEWAY)))
+                .thenReturn(CompletableFuture.completedFuture(REJECTED));
+
+        assertThat(verifier.verifyPaymentAsync("REF-FAIL")).isCompletedExceptionally();
+        assertThat(verifier.verifyPaymentAsync("REF-FAIL").join()).isEqualTo(REJECTED);
+    }
+
+    @Test
+    void outcomes_expireAfterTtl() {
+        verifier = new CachingPaymentVerifier(creditCardClient, Duration.ofMillis(50), 100, new SimpleMeterRegistry());
+        when(creditCardClient.verifyPayment("REF-1")).thenReturn(CONFIRMED);
+
+        verifier.verifyPayment("REF-1");
+        await().pollDelay(Duration.ofMillis(60)).atMost(Duration.ofSeconds(1))
+                .untilAsserted(() -> assertThat(verifier.verifyPayment("REF-1")).isEqualTo(CONFIRMED));
+
+        verify(creditCardClient, times(2)).verifyPayment("REF-1");
+    }
+
+    @Test
+    void outcomes_areEvictedBeyondMaxSize() {
+        meterRegistry = new SimpleMeterRegistry();
+        verifier = new CachingPaymentVerifier(creditCardClient, Duration.ofMinutes(1), 1, meterRegistry);
+        when(creditCardClient.verifyPayment("REF-1")).thenReturn(CONFIRMED);
+        when(creditCardClient.verifyPayment("REF-2")).thenReturn(REJECTED);
+
+        verifier.verifyPayment("REF-1");
+        verifier.verifyPayment("REF-2");
+
+        await().atMost(Duration.ofSeconds(1)).untilAsserted(() -> {
+            verifier.cleanUp();
+            assertThat(meterRegistry.get("cache.evictions").tag("cache", CachingPaymentVerifier.CACHE_NAME)
+                    .functionCounter().count()).isEqualTo(1);
+        });
+    }
+
+    @Test
+    void verifyPayment_concurrentCallsForSameReference_shareOneRequest() throws Exception {
+        int callers = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        when(creditCardClient.verifyPayment("REF-1")).thenAnswer(invocation -> {
+            release.await();
+            return CONFIRMED;
+        });
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            List<Future<PaymentStatusResponse>> results = submitConcurrently(executor, callers,
+                    () -> verifier.verifyPayment("REF-1"));
+            await().atMost(Duration.ofSeconds(5)).until(() -> coalesced() == callers - 1);
+            release.countDown();
+
+            for (Future<PaymentStatusResponse> result : results) {
+                assertThat(result.get()).isEqualTo(CONFIRMED);
+            }
+        }
+        verify(creditCardClient, times(1)).verifyPayment("REF-1");
+    }
+
+    @Test
+    void verifyPayment_concurrentCallers_allReceiveTheSharedError_andItIsNotCached() throws Exception {
+        int callers = 4;
+        CountDownLatch release = new CountDownLatch(1);
+        HttpServerErrorException failure = new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE);
+        when(creditCardClient.verifyPayment("REF-500")).thenAnswer(invocation -> {
+            release.await();
+            throw failure;
+        }).thenReturn(CONFIRMED);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            List<Future<PaymentStatusResponse>> results = submitConcurrently(executor, callers,
+                    () -> verifier.verifyPayment("REF-500"));
+            await().atMost(Duration.ofSeconds(5)).until(() -> coalesced() == callers - 1);
+            release.countDown();
+
+            for (Future<PaymentStatusResponse> result : results) {
+                assertThat(catchThrowable(result::get)).hasCause(failure);
+            }
+        }
+        assertThat(verifier.verifyPayment("REF-500")).isEqualTo(CONFIRMED);
+        verify(creditCardClient, times(2)).verifyPayment("REF-500");
+    }
+
+    @Test
+    void verifyPayment_errorInSharedCall_isPropagatedToCoalescedCallers() throws Exception {
+        int callers = 3;
+        CountDownLatch release = new CountDownLatch(1);
+        StackOverflowError failure = new StackOverflowError();
+        when(creditCardClient.verifyPayment("REF-ERR")).thenAnswer(invocation -> {
+            release.await();
+            throw failure;
+        }).thenReturn(CONFIRMED);
+
+        try (ExecutorService executor = Executors.newFixedThreadPool(callers)) {
+            List<Future<PaymentStatusResponse>> results = submitConcurrently(executor, callers,
+                    () -> verifier.verifyPayment("REF-ERR"));
+            await().atMost(Duration.ofSeconds(5)).until(() -> coalesced() == callers - 1);
+            release.countDown();
+
+            for (Future<PaymentStatusResponse> result : results) {
+                assertThat(catchThrowable(() -> result.get(5, TimeUnit.SECONDS))).hasCause(failure);
+            }
+        }
+        assertThat(verifier.verifyPayment("REF-ERR")).isEqualTo(CONFIRMED);
+    }
+
+    @Test
+    void verifyPaymentAsync_errorStartingRequest_failsCallersAndFreesReference() {
+        AssertionError failure = new AssertionError("boom");
+        when(creditCardClient.verifyPaymentAsync("REF-ERR"))
+                .thenThrow(failure)
+                .thenReturn(CompletableFuture.completedFuture(CONFIRMED));
+
+        assertThatThrownBy(() -> verifier.verifyPaymentAsync("REF-ERR")).isSameAs(failure);
+
+        assertThat(verifier.verifyPaymentAsync("REF-ERR").join()).isEqualTo(CONFIRMED);
+    }
+
+    @Test
+    void verifyPaymentAsync_callsWhileInFlight_shareOneRequest() {
+        CompletableFuture<PaymentStatusResponse> remote = new CompletableFuture<>();
+        when(creditCardClient.verifyPaymentAsync("REF-ASYNC")).thenReturn(remote);
+
+        CompletableFuture<PaymentStatusResponse> first = verifier.verifyPaymentAsync("REF-ASYNC");
+        CompletableFuture<PaymentStatusResponse> second = verifier.verifyPaymentAsync("REF-ASYNC");
+        remote.complete(CONFIRMED);
+
+        assertThat(first.join()).isEqualTo(CONFIRMED);
+        assertThat(second.join()).isEqualTo(CONFIRMED);
+        assertThat(coalesced()).isEqualTo(1);
+        verify(creditCardClient, times(1)).verifyPaymentAsync("REF-ASYNC");
+    }
+
+    @Test
+    void verifyPayment_whileAsyncRequestInFlight_waitsForIt() throws Exception {
+        CompletableFuture<PaymentStatusResponse> remote = new CompletableFuture<>();
+        when(creditCardClient.verifyPaymentAsync("REF-ASYNC")).thenReturn(remote);
+
+        verifier.verifyPaymentAsync("REF-ASYNC");
+        try (ExecutorService executor = Executors.newSingleThreadExecutor()) {
+            Future<PaymentStatusResponse> blocking = executor.submit(() -> verifier.verifyPayment("REF-ASYNC"));
+            await().atMost(Duration.ofSeconds(5)).until(() -> coalesced() == 1);
+            remote.complete(REJECTED);
+
+            assertThat(blocking.get()).isEqualTo(REJECTED);
+        }
+        verify(creditCardClient, times(1)).verifyPaymentAsync("REF-ASYNC");
+        verifyNoMoreInteractions(creditCardClient);
+    }
+
+    private static List<Future<PaymentStatusResponse>> submitConcurrently(
+            ExecutorService executor, int callers, Callable<PaymentStatusResponse> call) {
+        return IntStream.range(0, callers).mapToObj(i -> executor.submit(call)).toList();
+    }
+
+    private double coalesced() {
+        return meterRegistry.counter("payment.verification.coalesced").count();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets")
+                .tag("cache", CachingPaymentVerifier.CACHE_NAME)
+                .tag("result", result)
+                .functionCounter().count();
+    }
+}
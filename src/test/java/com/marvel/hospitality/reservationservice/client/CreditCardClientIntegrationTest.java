@@ -2,11 +2,14 @@ package com.marvel.hospitality.reservationservice.client;
 
 import com.github.tomakehurst.wiremock.WireMockServer;
 import com.github.tomakehurst.wiremock.stubbing.Scenario;
+import com.marvel.hospitality.reservationservice.dto.PaymentStatusResponse;
+import com.marvel.hospitality.reservationservice.model.PaymentConfirmationStatus;
 import io.github.resilience4j.circuitbreaker.CallNotPermittedException;
 import io.github.resilience4j.circuitbreaker.CircuitBreaker;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
 import io.github.resilience4j.retry.RetryRegistry;
 import io.github.resilience4j.retry.Retry;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -16,6 +19,11 @@ import org.springframework.test.context.ActiveProfiles;
 import org.wiremock.spring.ConfigureWireMock;
 import org.wiremock.spring.EnableWireMock;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.IntStream;
+
 import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
 import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.postRequestedFor;
@@ -35,6 +43,8 @@ class CreditCardClientIntegrationTest {
     private CircuitBreakerRegistry circuitBreakerRegistry;
     @Autowired
     private RetryRegistry retryRegistry;
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @Qualifier("credit-card-payment-server")
     @Autowired
@@ -121,4 +131,85 @@ class CreditCardClientIntegrationTest {
 
         assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testAsync_RetriesOnInternalServerError() {
+        wireMockServer.stubFor(post(urlPathMatching("/credit-card-payment-api/.*"))
+                .willReturn(aResponse().withStatus(500))
+                .inScenario("AsyncRetry")
+                .whenScenarioStateIs(Scenario.STARTED)
+                .willSetStateTo("Attempt2"));
+
+        wireMockServer.stubFor(post(urlPathMatching("/credit-card-payment-api/.*"))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"status\": \"CONFIRMED\"}"))
+                .inScenario("AsyncRetry")
+                .whenScenarioStateIs("Attempt2"));
+
+        PaymentStatusResponse response = creditCardClient.verifyPaymentAsync("REF-ASYNC").join();
+
+        assertThat(response.status()).isEqualTo(PaymentConfirmationStatus.CONFIRMED);
+        verify(2, postRequestedFor(urlPathMatching("/credit-card-payment-api/.*")));
+    }
+
+    @Test
+    void testAsync_NoRetry_OnBadRequest() {
+        wireMockServer.stubFor(post(urlPathMatching("/credit-card-payment-api/.*"))
+                .willReturn(aResponse().withStatus(400)));
+
+        assertThatThrownBy(() -> creditCardClient.verifyPaymentAsync("REF-BAD").join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(org.springframework.web.client.HttpClientErrorException.class);
+        verify(1, postRequestedFor(urlPathMatching("/credit-card-payment-api/.*")));
+    }
+
+    @Test
+    void testAsync_FansOutManyVerifications() {
+        wireMockServer.stubFor(post(urlPathMatching("/credit-card-payment-api/.*"))
+                .willReturn(aResponse().withStatus(200)
+                        .withFixedDelay(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"status\": \"CONFIRMED\"}")));
+
+        long start = System.nanoTime();
+        List<CompletableFuture<PaymentStatusResponse>> futures = IntStream.range(0, 16)
+                .mapToObj(i -> creditCardClient.verifyPaymentAsync("REF-FAN-" + i))
+                .toList();
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertThat(futures).allMatch(f -> f.join().status() == PaymentConfirmationStatus.CONFIRMED);
+        assertThat(elapsedMillis).isLessThan(16 * 200 / 2);
+        verify(16, postRequestedFor(urlPathMatching("/credit-card-payment-api/.*")));
+    }
+
+    @Test
+    void testAsync_CircuitOpen_FailsWithoutCallingService() {
+        circuitBreaker.transitionToOpenState();
+
+        assertThatThrownBy(() -> creditCardClient.verifyPaymentAsync("REF-OPEN").join())
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(CallNotPermittedException.class);
+        verify(0, postRequestedFor(urlPathMatching("/credit-card-payment-api/.*")));
+    }
+
+    @Test
+    void testPoolMetrics_ArePublishedForCreditCardClient() {
+        wireMockServer.stubFor(post(urlPathMatching("/credit-card-payment-api/.*"))
+                .willReturn(aResponse().withStatus(200)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"status\": \"CONFIRMED\"}")));
+
+        creditCardClient.verifyPayment("REF-POOL");
+
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.max")
+                .tag("httpclient", "creditCard").gauge().value()).isEqualTo(50);
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tags("httpclient", "creditCard", "state", "leased").gauge().value()).isZero();
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.connections")
+                .tags("httpclient", "creditCard", "state", "available").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("httpcomponents.httpclient.pool.total.pending")
+                .tag("httpclient", "creditCard").gauge().value()).isZero();
+    }
+}
@@ -3,12 +3,16 @@ package com.marvel.hospitality.reservationservice.client;
 import com.marvel.hospitality.reservationservice.model.PaymentConfirmationStatus;
 import com.marvel.hospitality.reservationservice.dto.PaymentStatusRequest;
 import com.marvel.hospitality.reservationservice.dto.PaymentStatusResponse;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Answers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.test.util.ReflectionTestUtils;
@@ -29,6 +33,12 @@ class CreditCardClientTest {
     @Mock(answer = Answers.RETURNS_DEEP_STUBS)
     private RestClient.RequestBodyUriSpec requestBodyUriSpec;
 
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Spy
+    private CircuitBreakerRegistry circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+
     @InjectMocks
     private CreditCardClient creditCardClient;
 
@@ -51,6 +61,8 @@ class CreditCardClientTest {
 
         assertThat(actualResponse).isNotNull();
         assertThat(actualResponse.status()).isEqualTo(PaymentConfirmationStatus.CONFIRMED);
+        assertThat(meterRegistry.timer("payment.verification.request", "outcome", "success", "circuit", "closed")
+                .count()).isEqualTo(1);
     }
 
 
@@ -69,5 +81,7 @@ class CreditCardClientTest {
         assertThatThrownBy(() -> creditCardClient.verifyPayment(ref))
                 .isInstanceOf(HttpServerErrorException.class)
                 .hasMessageContaining("500 Server Error");
+        assertThat(meterRegistry.timer("payment.verification.request", "outcome", "server_error", "circuit", "closed")
+                .count()).isEqualTo(1);
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.marvel.hospitality.reservationservice.client;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentVerificationExecutorTest {
+
+    private final PaymentVerificationExecutor executor = new PaymentVerificationExecutor(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void submit_runsTasksOnVirtualThreads() {
+        CompletableFuture<Boolean> virtual = executor.submit(() -> Thread.currentThread().isVirtual());
+
+        assertThat(virtual.join()).isTrue();
+    }
+
+    @Test
+    void submit_neverExceedsConcurrencyLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        List<CompletableFuture<Integer>> futures = IntStream.range(0, 40)
+                .mapToObj(i -> executor.submit(() -> {
+                    peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    sleepMillis(20);
+                    inFlight.decrementAndGet();
+                    return i;
+                }))
+                .toList();
+
+        assertThat(futures).extracting(CompletableFuture::join).hasSize(40);
+        assertThat(peak.get()).isBetween(2, 4);
+    }
+
+    @Test
+    void submit_failedTask_completesExceptionally() {
+        CompletableFuture<String> failed = executor.submit(() -> {
+            throw new IllegalStateException("boom");
+        });
+
+        assertThatThrownBy(failed::join)
+                .isInstanceOf(CompletionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveLimit() {
+        assertThatThrownBy(() -> new PaymentVerificationExecutor(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
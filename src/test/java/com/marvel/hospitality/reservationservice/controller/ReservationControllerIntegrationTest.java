@@ -1,7 +1,18 @@
 package com.marvel.hospitality.reservationservice.controller;
 
+import com.marvel.hospitality.reservationservice.dto.BatchReservationResponse;
+import com.marvel.hospitality.reservationservice.dto.BatchReservationResult;
+import com.marvel.hospitality.reservationservice.dto.ReservationFilter;
+import com.marvel.hospitality.reservationservice.dto.ReservationPage;
 import com.marvel.hospitality.reservationservice.dto.ReservationResponse;
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import com.marvel.hospitality.reservationservice.exception.ReservationNotFoundException;
+import com.marvel.hospitality.reservationservice.export.ReservationExporter;
+import com.marvel.hospitality.reservationservice.model.BatchMode;
+import com.marvel.hospitality.reservationservice.model.ExportFormat;
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
 import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import com.marvel.hospitality.reservationservice.model.RoomSegment;
 import com.marvel.hospitality.reservationservice.service.ReservationService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -9,11 +20,28 @@ import org.springframework.boot.webmvc.test.autoconfigure.WebMvcTest;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(ReservationController.class)
@@ -25,6 +53,9 @@ class ReservationControllerIntegrationTest {
     @MockitoBean
     private ReservationService service;
 
+    @MockitoBean
+    private ReservationExporter exporter;
+
     @Test
     void createReservation_success() throws Exception {
         when(service.createReservation(any()))
@@ -86,4 +117,161 @@ class ReservationControllerIntegrationTest {
                 .andExpect(jsonPath("$.title").value("Internal Server Error"))
                 .andExpect(jsonPath("$.status").value(500));
     }
-}
\ No newline at end of file
+
+    @Test
+    void createReservations_allCreated_returnsCreated() throws Exception {
+        when(service.createReservations(anyList(), eq(BatchMode.ALL_OR_NOTHING)))
+                .thenReturn(new BatchReservationResponse(List.of(
+                        BatchReservationResult.created(0, "ID000001", ReservationStatus.CONFIRMED),
+                        BatchReservationResult.created(1, "ID000002", ReservationStatus.PENDING_PAYMENT))));
+
+        mockMvc.perform(post("/reservations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                {
+                    "reservations": [
+                        {"customerName":"Seif","roomNumber":"101","startDate":"2100-02-01","endDate":"2100-02-05",
+                         "segment":"MEDIUM","paymentMode":"CASH"},
+                        {"customerName":"Seif","roomNumber":"102","startDate":"2100-02-01","endDate":"2100-02-05",
+                         "segment":"MEDIUM","paymentMode":"BANK_TRANSFER"}
+                    ]
+                }"""))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.results[0].reservationId").value("ID000001"))
+                .andExpect(jsonPath("$.results[1].status").value("PENDING_PAYMENT"));
+    }
+
+    @Test
+    void createReservations_partialFailure_returnsMultiStatus() throws Exception {
+        when(service.createReservations(anyList(), eq(BatchMode.PER_ITEM)))
+                .thenReturn(new BatchReservationResponse(List.of(
+                        BatchReservationResult.created(0, "ID000001", ReservationStatus.CONFIRMED),
+                        BatchReservationResult.failed(1, "Room 101 is already booked"))));
+
+        mockMvc.perform(post("/reservations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                {
+                    "mode": "PER_ITEM",
+                    "reservations": [
+                        {"customerName":"Seif","roomNumber":"101","startDate":"2100-02-01","endDate":"2100-02-05",
+                         "segment":"MEDIUM","paymentMode":"CASH"},
+                        {"customerName":"Seif","roomNumber":"101","startDate":"2100-02-01","endDate":"2100-02-05",
+                         "segment":"MEDIUM","paymentMode":"CASH"}
+                    ]
+                }"""))
+                .andExpect(status().isMultiStatus())
+                .andExpect(jsonPath("$.results[1].error").value("Room 101 is already booked"));
+    }
+
+    @Test
+    void createReservations_invalidItem_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/reservations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                {
+                    "reservations": [
+                        {"customerName":"Seif","roomNumber":"101","startDate":"2100-02-01","endDate":"2100-02-05",
+                         "segment":"MEDIUM"}
+                    ]
+                }"""))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.errors['reservations[0].paymentMode']").value("Payment mode is required"));
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void createReservations_emptyBatch_returnsBadRequest() throws Exception {
+        mockMvc.perform(post("/reservations/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("""
+                { "reservations": [] }"""))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void getReservation_found_returnsView() throws Exception {
+        when(service.getReservation("ABC12345")).thenReturn(new ReservationView("ABC12345", "Seif", "101",
+                LocalDate.of(2100, 2, 1), LocalDate.of(2100, 2, 5), RoomSegment.MEDIUM, PaymentMode.CASH,
+                ReservationStatus.CONFIRMED, null));
+
+        mockMvc.perform(get("/reservations/ABC12345"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reservationId").value("ABC12345"))
+                .andExpect(jsonPath("$.startDate").value("2100-02-01"))
+                .andExpect(jsonPath("$.status").value("CONFIRMED"));
+    }
+
+    @Test
+    void getReservation_missing_returnsNotFound() throws Exception {
+        when(service.getReservation("NONE0000"))
+                .thenThrow(new ReservationNotFoundException("Reservation NONE0000 not found"));
+
+        mockMvc.perform(get("/reservations/NONE0000"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.detail").value("Reservation NONE0000 not found"));
+    }
+
+    @Test
+    void findReservations_passesFiltersAndCursor() throws Exception {
+        ReservationFilter filter = new ReservationFilter(ReservationStatus.PENDING_PAYMENT, PaymentMode.BANK_TRANSFER,
+                "101", LocalDate.of(2100, 2, 1), LocalDate.of(2100, 3, 1));
+        when(service.findReservations(filter, "ABC12345", 50))
+                .thenReturn(new ReservationPage(List.of(), null));
+
+        mockMvc.perform(get("/reservations")
+                        .param("status", "PENDING_PAYMENT")
+                        .param("paymentMode", "BANK_TRANSFER")
+                        .param("roomNumber", "101")
+                        .param("from", "2100-02-01")
+                        .param("to", "2100-03-01")
+                        .param("after", "ABC12345")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reservations").isEmpty());
+    }
+
+    @Test
+    void findReservations_unknownStatus_returnsBadRequest() throws Exception {
+        mockMvc.perform(get("/reservations").param("status", "LOST"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(service);
+    }
+
+    @Test
+    void exportReservations_csv_streamsAttachment() throws Exception {
+        ReservationFilter filter = new ReservationFilter(ReservationStatus.CONFIRMED, null, null, null, null);
+        doAnswer(invocation -> {
+            invocation.<OutputStream>getArgument(2).write("reservationId\nABC12345\n".getBytes(StandardCharsets.UTF_8));
+            return 1L;
+        }).when(exporter).export(eq(filter), eq(ExportFormat.CSV), any());
+
+        MvcResult started = mockMvc.perform(get("/reservations/export")
+                        .param("status", "CONFIRMED")
+                        .param("format", "CSV"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        assertThat(started.getRequest().getAsyncContext().getTimeout()).isEqualTo(Duration.ofMinutes(30).toMillis());
+
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"reservations.csv\""))
+                .andExpect(content().string("reservationId\nABC12345\n"));
+    }
+
+    @Test
+    void exportReservations_invalidRange_returnsBadRequestBeforeStreaming() throws Exception {
+        mockMvc.perform(get("/reservations/export")
+                        .param("from", "2100-03-01")
+                        .param("to", "2100-02-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.detail").value("'to' must be after 'from'"));
+
+        verifyNoInteractions(exporter);
+    }
+}
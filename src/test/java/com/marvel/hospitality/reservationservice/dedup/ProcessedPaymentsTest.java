@@ -0,0 +1,140 @@
+package com.marvel.hospitality.reservationservice.dedup;
+
+import com.marvel.hospitality.reservationservice.dto.BankTransferPayment;
+import com.marvel.hospitality.reservationservice.entity.ProcessedPayment;
+import com.marvel.hospitality.reservationservice.repository.ProcessedPaymentRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProcessedPaymentsTest {
+
+    @Mock
+    private ProcessedPaymentRepository repository;
+
+    private MeterRegistry meterRegistry;
+    private ProcessedPayments processedPayments;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        processedPayments = new ProcessedPayments(repository, 100, Duration.ofHours(1), Duration.ofDays(30), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void isProcessed_unknownPayment_checksStoreOnce() {
+        assertThat(processedPayments.isProcessed("pay-1")).isFalse();
+
+        verify(repository).existsById("pay-1");
+        assertThat(count("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void isProcessed_storedPayment_isRememberedInMemory() {
+        when(repository.existsById("pay-1")).thenReturn(true);
+
+        assertThat(processedPayments.isProcessed("pay-1")).isTrue();
+        assertThat(processedPayments.isProcessed("pay-1")).isTrue();
+
+        verify(repository, times(1)).existsById("pay-1");
+        assertThat(count("store_hit")).isEqualTo(1);
+        assertThat(count("memory_hit")).isEqualTo(1);
+    }
+
+    @Test
+    void isProcessed_nullPaymentId_isNeverADuplicate() {
+        assertThat(processedPayments.isProcessed(null)).isFalse();
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void markProcessed_outsideTransaction_answersFromMemory() {
+        processedPayments.markProcessed(new BankTransferPayment("pay-1", "RES00001"));
+
+        assertThat(processedPayments.isProcessed("pay-1")).isTrue();
+        verify(repository).saveAll(argThat((List<ProcessedPayment> rows) ->
+                rows.size() == 1 && rows.getFirst().getReservationId().equals("RES00001")));
+        verify(repository, never()).existsById(anyString());
+    }
+
+    @Test
+    void markProcessed_inTransaction_isOnlyRememberedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        processedPayments.markProcessed(new BankTransferPayment("pay-1", "RES00001"));
+        processedPayments.isProcessed("pay-1");
+        verify(repository).existsById("pay-1");
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        synchronizations.forEach(TransactionSynchronization::afterCommit);
+
+        assertThat(processedPayments.isProcessed("pay-1")).isTrue();
+        verify(repository, times(1)).existsById("pay-1");
+    }
+
+    @Test
+    void markProcessed_withoutPaymentIds_writesNothing() {
+        processedPayments.markProcessed(List.of(new BankTransferPayment(null, "RES00001")));
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void processedOf_queriesStoreOnlyForIdsNotInMemory() {
+        processedPayments.markProcessed(new BankTransferPayment("pay-1", "RES00001"));
+        when(repository.findProcessedIds(Set.of("pay-2", "pay-3"))).thenReturn(Set.of("pay-2"));
+
+        assertThat(processedPayments.processedOf(Arrays.asList("pay-1", "pay-2", "pay-3", null)))
+                .containsExactlyInAnyOrder("pay-1", "pay-2");
+
+        verify(repository).findProcessedIds(anyCollection());
+        assertThat(count("memory_hit")).isEqualTo(1);
+        assertThat(count("store_hit")).isEqualTo(1);
+        assertThat(count("miss")).isEqualTo(1);
+    }
+
+    @Test
+    void purgeExpired_deletesRowsOlderThanTheRetention() {
+        when(repository.deleteProcessedBefore(any())).thenReturn(3);
+        LocalDateTime before = LocalDateTime.now().minusDays(30);
+
+        assertThat(processedPayments.purgeExpired()).isEqualTo(3);
+
+        ArgumentCaptor<LocalDateTime> cutoff = ArgumentCaptor.forClass(LocalDateTime.class);
+        verify(repository).deleteProcessedBefore(cutoff.capture());
+        assertThat(cutoff.getValue()).isBetween(before, LocalDateTime.now().minusDays(30));
+    }
+
+    private double count(String result) {
+        return meterRegistry.counter("payment.update.dedup", "result", result).count();
+    }
+}
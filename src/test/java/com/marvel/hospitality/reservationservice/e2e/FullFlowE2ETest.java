@@ -2,14 +2,18 @@ package com.marvel.hospitality.reservationservice.e2e;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.github.tomakehurst.wiremock.WireMockServer;
+import com.marvel.hospitality.reservationservice.availability.RoomAvailabilityIndex;
+import com.marvel.hospitality.reservationservice.dto.BatchReservationRequest;
 import com.marvel.hospitality.reservationservice.dto.PaymentUpdateEvent;
 import com.marvel.hospitality.reservationservice.dto.ReservationRequest;
 import com.marvel.hospitality.reservationservice.entity.Reservation;
+import com.marvel.hospitality.reservationservice.model.BatchMode;
 import com.marvel.hospitality.reservationservice.model.PaymentMode;
 import com.marvel.hospitality.reservationservice.model.ReservationStatus;
 import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
 import com.marvel.hospitality.reservationservice.scheduler.ReservationScheduler;
 import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,6 +28,7 @@ import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.test.EmbeddedKafkaBroker;
 import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.wiremock.spring.ConfigureWireMock;
@@ -43,6 +48,7 @@ import static com.marvel.hospitality.reservationservice.model.PaymentMode.CREDIT
 import static com.marvel.hospitality.reservationservice.model.RoomSegment.LARGE;
 import static com.marvel.hospitality.reservationservice.model.RoomSegment.MEDIUM;
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Awaitility.await;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
@@ -71,9 +77,15 @@ class FullFlowE2ETest {
     @Autowired
     private ReservationScheduler scheduler;
 
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+
     @Autowired
     private CircuitBreakerRegistry circuitBreakerRegistry;
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @Autowired
     EmbeddedKafkaBroker embeddedKafkaBroker;
 
@@ -87,6 +99,7 @@ class FullFlowE2ETest {
         wireMockServer.resetAll();
         circuitBreakerRegistry.circuitBreaker("creditCard").reset();
         repository.deleteAll();
+        availabilityIndex.reload();
     }
 
     @Test
@@ -102,6 +115,65 @@ class FullFlowE2ETest {
         assertThat(created.getPaymentReference()).isNull();
     }
 
+    @Test
+    void overlappingStay_sameRoom_rejectedWithConflict() {
+        var first = new ReservationRequest("First Guest", "404", LocalDate.of(2100, 1, 1), LocalDate.of(2100, 1, 5),
+                MEDIUM, CASH, null);
+        var overlapping = new ReservationRequest("Second Guest", "404", LocalDate.of(2100, 1, 4),
+                LocalDate.of(2100, 1, 8), MEDIUM, CASH, null);
+        var adjacent = new ReservationRequest("Third Guest", "404", LocalDate.of(2100, 1, 5), LocalDate.of(2100, 1, 8),
+                MEDIUM, CASH, null);
+
+        assertThat(restTemplate.postForEntity("/reservations", first, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.CREATED);
+        var conflict = restTemplate.postForEntity("/reservations", overlapping, String.class);
+        assertThat(conflict.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(conflict.getBody()).contains("Room 404 is already booked");
+        assertThat(restTemplate.postForEntity("/reservations", adjacent, String.class).getStatusCode())
+                .isEqualTo(HttpStatus.CREATED);
+
+        assertThat(repository.findAll()).noneMatch(r -> r.getCustomerName().equals("Second Guest"));
+    }
+
+    @Test
+    void batch_allOrNothing_conflict_persistsNothingAndFreesRooms() {
+        var batch = new BatchReservationRequest(List.of(
+                new ReservationRequest("Group A", "501", LocalDate.of(2100, 1, 1), LocalDate.of(2100, 1, 5),
+                        MEDIUM, CASH, null),
+                new ReservationRequest("Group B", "502", LocalDate.of(2100, 1, 1), LocalDate.of(2100, 1, 5),
+                        MEDIUM, BANK_TRANSFER, null),
+                new ReservationRequest("Group C", "501", LocalDate.of(2100, 1, 3), LocalDate.of(2100, 1, 6),
+                        MEDIUM, CASH, null)), BatchMode.ALL_OR_NOTHING);
+
+        var response = restTemplate.postForEntity("/reservations/batch", batch, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CONFLICT);
+        assertThat(repository.findAll()).isEmpty();
+
+        var retry = new BatchReservationRequest(batch.reservations().subList(0, 2), null);
+        var retried = restTemplate.postForEntity("/reservations/batch", retry, String.class);
+        assertThat(retried.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(repository.findAll()).extracting(Reservation::getCustomerName)
+                .containsExactlyInAnyOrder("Group A", "Group B");
+    }
+
+    @Test
+    void batch_perItem_createsValidReservationsAndReportsFailures() {
+        var batch = new BatchReservationRequest(List.of(
+                new ReservationRequest("Agency A", "601", LocalDate.of(2100, 1, 1), LocalDate.of(2100, 1, 5),
+                        MEDIUM, CASH, null),
+                new ReservationRequest("Agency B", "602", LocalDate.of(2100, 1, 1), LocalDate.of(2100, 3, 5),
+                        MEDIUM, CASH, null),
+                new ReservationRequest("Agency C", "603", LocalDate.of(2100, 1, 1), LocalDate.of(2100, 1, 5),
+                        MEDIUM, BANK_TRANSFER, null)), BatchMode.PER_ITEM);
+
+        var response = restTemplate.postForEntity("/reservations/batch", batch, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.MULTI_STATUS);
+        assertThat(response.getBody()).contains("The Max reservation duration is 30 days");
+
+        assertThat(repository.findAll()).extracting(Reservation::getCustomerName)
+                .containsExactlyInAnyOrder("Agency A", "Agency C");
+    }
+
     @Test
     void reservationTooLong_throwsValidationError() {
         var request = new ReservationRequest("JohnOverstay", "101", LocalDate.of(2100, 1, 1), LocalDate.of(2100, 3, 5),
@@ -155,7 +227,7 @@ class FullFlowE2ETest {
                         .withBody("{\"status\": \"REJECTED\"}")));
 
         var request = new ReservationRequest("John Card", "101", LocalDate.of(2100, 1, 1), LocalDate.of(2100, 1, 5),
-                LARGE, CREDIT_CARD, "PAYREF-123456");
+                LARGE, CREDIT_CARD, "PAYREF-654321");
 
         var response = restTemplate.postForEntity("/reservations", request, String.class);
         assertThat(response.getStatusCode()).isEqualTo(HttpStatus.BAD_REQUEST);
@@ -178,7 +250,7 @@ class FullFlowE2ETest {
         assertThat(pending.getStatus()).isEqualTo(ReservationStatus.PENDING_PAYMENT);
 
 
-        PaymentUpdateEvent event = new PaymentUpdateEvent("pay1", "acc1", BigDecimal.TEN, "E2E1234567 " + reservationId);
+        PaymentUpdateEvent event = new PaymentUpdateEvent("pay-" + reservationId, "acc1", BigDecimal.TEN, "E2E1234567 " + reservationId);
         String message = objectMapper.writeValueAsString(event);
         kafkaTemplate.send("bank-transfer-payment-update", message);
 
@@ -188,14 +260,71 @@ class FullFlowE2ETest {
             assertThat(updated.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
         });
 
+        // the copy read before the confirmation is stale and can no longer overwrite it
         pending.setStartDate(LocalDate.now().minusDays(1));
-        repository.save(pending);
+        assertThatThrownBy(() -> repository.save(pending)).isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        Reservation confirmed = repository.findById(reservationId).orElseThrow();
+        confirmed.setStartDate(LocalDate.now().minusDays(1));
+        repository.save(confirmed);
+        String unpaid = createReservation(new ReservationRequest("Jane", "102", LocalDate.now(),
+                LocalDate.now().plusDays(2), MEDIUM, BANK_TRANSFER, null));
 
 
         scheduler.cancelOverdueBankTransferReservations();
 
-        Reservation cancelled = repository.findById(reservationId).orElseThrow();
-        assertThat(cancelled.getStatus()).isEqualTo(ReservationStatus.CANCELLED);
+        assertThat(repository.findById(reservationId).orElseThrow().getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+        assertThat(repository.findById(unpaid).orElseThrow().getStatus()).isEqualTo(ReservationStatus.CANCELLED);
+    }
+
+    @Test
+    void export_csv_streamsMatchingReservations() {
+        String cash = createReservation(new ReservationRequest("Cash", "801", LocalDate.of(2100, 1, 1),
+                LocalDate.of(2100, 1, 5), MEDIUM, CASH, null));
+        createReservation(new ReservationRequest("Transfer", "802", LocalDate.of(2100, 1, 1),
+                LocalDate.of(2100, 1, 5), MEDIUM, BANK_TRANSFER, null));
+
+        var response = restTemplate.getForEntity("/reservations/export?format=CSV&paymentMode=CASH", String.class);
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(response.getHeaders().getContentType()).hasToString("text/csv;charset=UTF-8");
+        assertThat(response.getBody()).startsWith("reservationId,").contains(cash + ",Cash,801,")
+                .doesNotContain("Transfer");
+    }
+
+    @Test
+    void getReservation_cachedStatus_neverStaleAfterConfirmOrCancel() throws Exception {
+        String later = createReservation(new ReservationRequest("Later", "701", LocalDate.of(2100, 1, 1),
+                LocalDate.of(2100, 1, 5), MEDIUM, BANK_TRANSFER, null));
+        String overdue = createReservation(new ReservationRequest("Overdue", "702", LocalDate.now(),
+                LocalDate.now().plusDays(2), MEDIUM, BANK_TRANSFER, null));
+        assertThat(statusOf(later)).isEqualTo("PENDING_PAYMENT");
+        assertThat(statusOf(later)).isEqualTo("PENDING_PAYMENT");
+        assertThat(statusOf(overdue)).isEqualTo("PENDING_PAYMENT");
+
+        PaymentUpdateEvent event = new PaymentUpdateEvent("pay-" + later, "acc1", BigDecimal.TEN, "E2E7654321 " + later);
+        kafkaTemplate.send("bank-transfer-payment-update", objectMapper.writeValueAsString(event));
+        await().atMost(10, SECONDS).untilAsserted(() -> assertThat(statusOf(later)).isEqualTo("CONFIRMED"));
+
+        scheduler.cancelOverdueBankTransferReservations();
+        assertThat(statusOf(overdue)).isEqualTo("CANCELLED");
+        assertThat(statusOf(later)).isEqualTo("CONFIRMED");
+
+        assertThat(meterRegistry.get("cache.hit.ratio").tag("cache", "reservations").gauge().value()).isPositive();
+    }
+
+    @SneakyThrows
+    private String createReservation(ReservationRequest request) {
+        var response = restTemplate.postForEntity("/reservations", request, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        return objectMapper.readTree(response.getBody()).get("reservationId").asText();
+    }
+
+    @SneakyThrows
+    private String statusOf(String reservationId) {
+        var response = restTemplate.getForEntity("/reservations/" + reservationId, String.class);
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.OK);
+        return objectMapper.readTree(response.getBody()).get("status").asText();
     }
 
     @Test
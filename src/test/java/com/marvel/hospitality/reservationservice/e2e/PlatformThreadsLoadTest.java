@@ -0,0 +1,28 @@
+package com.marvel.hospitality.reservationservice.e2e;
+
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureTestRestTemplate;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.wiremock.spring.ConfigureWireMock;
+import org.wiremock.spring.EnableWireMock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Baseline: every booking holds one of the Tomcat threads for the whole payment call, so the load is
+ * served in waves of {@value #TOMCAT_MAX_THREADS}.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT,
+        properties = "server.tomcat.threads.max=" + RequestThreadingLoadTest.TOMCAT_MAX_THREADS)
+@ActiveProfiles("test")
+@AutoConfigureTestRestTemplate
+@EnableWireMock(@ConfigureWireMock(name = "credit-card-payment-server", port = 9090, registerSpringBean = true))
+class PlatformThreadsLoadTest extends RequestThreadingLoadTest {
+
+    @Override
+    void assertLatency(long elapsedMillis, long p99Millis) {
+        int waves = CONCURRENT_BOOKINGS / TOMCAT_MAX_THREADS;
+        assertThat(elapsedMillis).isGreaterThanOrEqualTo((long) waves * PAYMENT_DELAY_MILLIS);
+    }
+}
@@ -0,0 +1,113 @@
+package com.marvel.hospitality.reservationservice.e2e;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.marvel.hospitality.reservationservice.availability.RoomAvailabilityIndex;
+import com.marvel.hospitality.reservationservice.dto.ReservationRequest;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.resttestclient.TestRestTemplate;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.marvel.hospitality.reservationservice.model.PaymentMode.CREDIT_CARD;
+import static com.marvel.hospitality.reservationservice.model.RoomSegment.MEDIUM;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Fires {@value #CONCURRENT_BOOKINGS} concurrent credit-card bookings against a payment service answering
+ * in {@value #PAYMENT_DELAY_MILLIS} ms, with Tomcat limited to {@value #TOMCAT_MAX_THREADS} request threads,
+ * and logs throughput and p99 latency. Subclasses run it with platform and with virtual request threads.
+ * Tagged {@code load}: the latency bounds need a few idle cores, so these only run with {@code mvn -Pload test}.
+ */
+@Slf4j
+@Tag("load")
+abstract class RequestThreadingLoadTest {
+
+    static final int CONCURRENT_BOOKINGS = 20;
+    static final int PAYMENT_DELAY_MILLIS = 500;
+    static final int TOMCAT_MAX_THREADS = 4;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ReservationRepository repository;
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Qualifier("credit-card-payment-server")
+    @Autowired
+    private WireMockServer wireMockServer;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate.getRestTemplate().setRequestFactory(new SimpleClientHttpRequestFactory());
+        wireMockServer.resetAll();
+        circuitBreakerRegistry.circuitBreaker("creditCard").reset();
+        repository.deleteAll();
+        availabilityIndex.reload();
+        wireMockServer.stubFor(post(urlPathMatching("/credit-card-payment-api/.*"))
+                .willReturn(aResponse().withStatus(200)
+                        .withFixedDelay(PAYMENT_DELAY_MILLIS)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"status\": \"CONFIRMED\"}")));
+    }
+
+    @Test
+    void slowPaymentService_bookingLoad() {
+        long[] latenciesMillis = new long[CONCURRENT_BOOKINGS];
+        long start = System.nanoTime();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<CompletableFuture<HttpStatusCode>> bookings = IntStream.range(0, CONCURRENT_BOOKINGS)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> {
+                        long sent = System.nanoTime();
+                        HttpStatusCode status = restTemplate.postForEntity("/reservations",
+                                new ReservationRequest("Guest " + i, "T" + i, LocalDate.of(2100, 1, 1),
+                                        LocalDate.of(2100, 1, 5), MEDIUM, CREDIT_CARD, "PAYREF-THREADS-" + i),
+                                String.class).getStatusCode();
+                        latenciesMillis[i] = (System.nanoTime() - sent) / 1_000_000;
+                        return status;
+                    }, clients))
+                    .toList();
+
+            assertThat(bookings.stream().map(CompletableFuture::join).toList()).containsOnly(HttpStatus.CREATED);
+        }
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        long p99 = percentile(latenciesMillis, 0.99);
+        log.info("{}: {} bookings in {} ms ({} req/s), p99 {} ms", getClass().getSimpleName(), CONCURRENT_BOOKINGS,
+                elapsedMillis, CONCURRENT_BOOKINGS * 1000L / Math.max(elapsedMillis, 1), p99);
+        assertThat(repository.count()).isEqualTo(CONCURRENT_BOOKINGS);
+        assertLatency(elapsedMillis, p99);
+    }
+
+    abstract void assertLatency(long elapsedMillis, long p99Millis);
+
+    private static long percentile(long[] values, double fraction) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[(int) Math.ceil(fraction * sorted.length) - 1];
+    }
+}
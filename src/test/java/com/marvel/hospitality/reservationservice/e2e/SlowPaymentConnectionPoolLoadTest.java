@@ -0,0 +1,118 @@
+package com.marvel.hospitality.reservationservice.e2e;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.marvel.hospitality.reservationservice.availability.RoomAvailabilityIndex;
+import com.marvel.hospitality.reservationservice.dto.ReservationRequest;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.resttestclient.TestRestTemplate;
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureTestRestTemplate;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.test.context.ActiveProfiles;
+import org.wiremock.spring.ConfigureWireMock;
+import org.wiremock.spring.EnableWireMock;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathMatching;
+import static com.marvel.hospitality.reservationservice.model.PaymentMode.CREDIT_CARD;
+import static com.marvel.hospitality.reservationservice.model.RoomSegment.MEDIUM;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Fires more concurrent credit-card bookings than the Hikari pool has connections while the
+ * payment service answers slowly, and checks that no connection is leased while the payments are pending.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT, properties = "spring.datasource.hikari.maximum-pool-size=5")
+@ActiveProfiles("test")
+@AutoConfigureTestRestTemplate
+@EnableWireMock(@ConfigureWireMock(name = "credit-card-payment-server", port = 9090, registerSpringBean = true))
+class SlowPaymentConnectionPoolLoadTest {
+
+    private static final int CONCURRENT_BOOKINGS = 20;
+    private static final int PAYMENT_DELAY_MILLIS = 1000;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private ReservationRepository repository;
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+
+    @Qualifier("credit-card-payment-server")
+    @Autowired
+    private WireMockServer wireMockServer;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate.getRestTemplate().setRequestFactory(new SimpleClientHttpRequestFactory());
+        wireMockServer.resetAll();
+        circuitBreakerRegistry.circuitBreaker("creditCard").reset();
+        repository.deleteAll();
+        availabilityIndex.reload();
+    }
+
+    @Test
+    void slowPaymentService_doesNotHoldDatabaseConnections() throws Exception {
+        wireMockServer.stubFor(post(urlPathMatching("/credit-card-payment-api/.*"))
+                .willReturn(aResponse().withStatus(200)
+                        .withFixedDelay(PAYMENT_DELAY_MILLIS)
+                        .withHeader("Content-Type", "application/json")
+                        .withBody("{\"status\": \"CONFIRMED\"}")));
+
+        HikariPoolMXBean pool = ((HikariDataSource) dataSource).getHikariPoolMXBean();
+        AtomicInteger peakActiveWhilePaymentsPending = new AtomicInteger();
+
+        try (ExecutorService clients = Executors.newFixedThreadPool(CONCURRENT_BOOKINGS + 1)) {
+            long samplingDeadline = System.nanoTime() + PAYMENT_DELAY_MILLIS * 800_000L;
+            clients.submit(() -> {
+                while (System.nanoTime() < samplingDeadline) {
+                    peakActiveWhilePaymentsPending.accumulateAndGet(pool.getActiveConnections(), Math::max);
+                    Thread.sleep(5);
+                }
+                return null;
+            });
+
+            List<CompletableFuture<HttpStatusCode>> bookings = IntStream.range(0, CONCURRENT_BOOKINGS)
+                    .mapToObj(i -> CompletableFuture.supplyAsync(() -> restTemplate.postForEntity("/reservations",
+                            new ReservationRequest("Guest " + i, "L" + i, LocalDate.of(2100, 1, 1),
+                                    LocalDate.of(2100, 1, 5), MEDIUM, CREDIT_CARD, "PAYREF-LOAD-" + i),
+                            String.class).getStatusCode(), clients))
+                    .toList();
+
+            List<HttpStatusCode> statuses = bookings.stream().map(CompletableFuture::join).toList();
+            assertThat(statuses).containsOnly(HttpStatus.CREATED);
+        }
+
+        assertThat(peakActiveWhilePaymentsPending.get()).isZero();
+        assertThat(pool.getThreadsAwaitingConnection()).isZero();
+        assertThat(repository.count()).isEqualTo(CONCURRENT_BOOKINGS);
+    }
+}
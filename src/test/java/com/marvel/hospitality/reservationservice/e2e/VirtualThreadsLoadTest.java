@@ -0,0 +1,30 @@
+package com.marvel.hospitality.reservationservice.e2e;
+
+import org.springframework.boot.resttestclient.autoconfigure.AutoConfigureTestRestTemplate;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.wiremock.spring.ConfigureWireMock;
+import org.wiremock.spring.EnableWireMock;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.boot.test.context.SpringBootTest.WebEnvironment.RANDOM_PORT;
+
+/**
+ * Same load with the virtual-threads profile: the Tomcat thread limit no longer applies and the
+ * credit-card connection pool admits every booking, so all payment calls overlap. That also needs the
+ * booking path to be free of carrier pinning on JDK 21: no {@code synchronized} around the blocking card
+ * call (HttpClient 5.5 guards its pool with locks), which {@code -Djdk.tracePinnedThreads=full} confirms.
+ */
+@SpringBootTest(webEnvironment = RANDOM_PORT,
+        properties = "server.tomcat.threads.max=" + RequestThreadingLoadTest.TOMCAT_MAX_THREADS)
+@ActiveProfiles({"test", "virtual-threads"})
+@AutoConfigureTestRestTemplate
+@EnableWireMock(@ConfigureWireMock(name = "credit-card-payment-server", port = 9090, registerSpringBean = true))
+class VirtualThreadsLoadTest extends RequestThreadingLoadTest {
+
+    @Override
+    void assertLatency(long elapsedMillis, long p99Millis) {
+        int platformWaves = CONCURRENT_BOOKINGS / TOMCAT_MAX_THREADS;
+        assertThat(p99Millis).isLessThan((long) platformWaves * PAYMENT_DELAY_MILLIS / 2);
+    }
+}
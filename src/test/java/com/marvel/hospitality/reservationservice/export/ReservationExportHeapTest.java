@@ -0,0 +1,154 @@
+package com.marvel.hospitality.reservationservice.export;
+
+import com.marvel.hospitality.reservationservice.RoomReservationServiceApplication;
+import com.marvel.hospitality.reservationservice.dto.ReservationFilter;
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import com.marvel.hospitality.reservationservice.model.ExportFormat;
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
+import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import com.marvel.hospitality.reservationservice.model.RoomSegment;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import tools.jackson.databind.json.JsonMapper;
+
+import javax.sql.DataSource;
+
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Exports half a million rows from a file-based H2 database, through the application's own repository and
+ * transaction, in a child JVM limited to a 128 MB heap, about half of which the application itself keeps:
+ * the rows take well over 100 MB once read, so materializing the result anywhere between the JDBC driver
+ * and the output ends in an OutOfMemoryError. The writer on its own is fed a generated stream.
+ */
+class ReservationExportHeapTest {
+
+    private static final long ROWS = 500_000;
+
+    @TempDir
+    Path databaseDir;
+
+    @Test
+    void export_millionsOfStoredRows_fitsInSmallHeap() throws Exception {
+        Path java = Path.of(System.getProperty("java.home"), "bin", "java");
+        Process process = new ProcessBuilder(List.of(java.toString(), "-Xmx128m",
+                "-cp", System.getProperty("java.class.path"),
+                ExportFromDatabase.class.getName(), databaseDir.resolve("export").toString(), String.valueOf(ROWS)))
+                .redirectErrorStream(true)
+                .start();
+        String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+
+        assertThat(process.waitFor(5, TimeUnit.MINUTES)).isTrue();
+        assertThat(process.exitValue()).as(output).isZero();
+        assertThat(output).contains("exported " + ROWS + " rows");
+    }
+
+    @Test
+    void export_writesEachRowBeforeReadingMuchFurther() throws Exception {
+        CountingOutputStream out = new CountingOutputStream();
+        ReservationRepository repository = repositoryOf(LongStream.range(0, 100_000).mapToObj(i -> {
+            // a row is about 100 bytes of CSV; the writer buffer holds 64 KiB, i.e. well under 1000 rows
+            assertThat(out.bytes).isGreaterThanOrEqualTo((i - 1000) * 50);
+            return view(i);
+        }));
+
+        long rows = new ReservationExporter(repository, JsonMapper.builder().build(), new SimpleMeterRegistry())
+                .export(new ReservationFilter(null, null, null, null, null), ExportFormat.CSV, out);
+
+        assertThat(rows).isEqualTo(100_000);
+    }
+
+    static ReservationRepository repositoryOf(Stream<ReservationView> rows) {
+        return (ReservationRepository) Proxy.newProxyInstance(ReservationRepository.class.getClassLoader(),
+                new Class<?>[]{ReservationRepository.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("streamViews")) {
+                        return rows;
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+    }
+
+    static ReservationView view(long i) {
+        return new ReservationView("ID" + i, "Customer " + i, "R" + (i % 500), LocalDate.of(2100, 1, 1),
+                LocalDate.of(2100, 1, 5), RoomSegment.MEDIUM, PaymentMode.BANK_TRANSFER,
+                ReservationStatus.PENDING_PAYMENT, LocalDateTime.of(2099, 12, 1, 10, 30));
+    }
+
+    static class CountingOutputStream extends OutputStream {
+        long bytes;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+        }
+    }
+
+    /**
+     * Child JVM entry point: boots the application on an H2 file database, fills it with generated rows in
+     * batches and exports the pending ones as CSV to a stream that only counts bytes. The room indexes are
+     * dropped before the load, which they would slow down several times over; the export reads the
+     * {@code (status, id)} index.
+     */
+    public static class ExportFromDatabase {
+        private static final long INSERT_BATCH = 100_000;
+        private static final List<String> UNUSED_INDEXES = List.of(
+                "idx_reservations_status_mode_start", "idx_reservations_room_dates", "idx_reservations_room_id");
+
+        public static void main(String[] args) throws Exception {
+            long count = Long.parseLong(args[1]);
+            try (ConfigurableApplicationContext context = new SpringApplicationBuilder(RoomReservationServiceApplication.class)
+                    .web(WebApplicationType.NONE)
+                    .run("--spring.datasource.url=jdbc:h2:file:" + args[0],
+                            "--spring.jpa.hibernate.ddl-auto=create",
+                            "--reservation.id.node-id=0",
+                            "--app.kafka.enabled=false",
+                            "--logging.level.root=WARN")) {
+                try (Connection connection = context.getBean(DataSource.class).getConnection();
+                     Statement statement = connection.createStatement()) {
+                    for (String index : UNUSED_INDEXES) {
+                        statement.execute("DROP INDEX " + index);
+                    }
+                    for (long first = 1; first <= count; first += INSERT_BATCH) {
+                        statement.executeUpdate("""
+                                INSERT INTO reservations (id, version, customer_name, room_number, start_date, end_date,
+                                    segment, payment_mode, status, created_at, updated_at)
+                                SELECT LPAD(CAST(x AS VARCHAR), 8, '0'), 0, CONCAT('Customer ', x), CAST(MOD(x, 500) AS VARCHAR),
+                                       DATE '2100-01-01', DATE '2100-01-05', 'MEDIUM', 'BANK_TRANSFER', 'PENDING_PAYMENT',
+                                       CURRENT_TIMESTAMP, CURRENT_TIMESTAMP
+                                FROM SYSTEM_RANGE(%d, %d)""".formatted(first, Math.min(count, first + INSERT_BATCH - 1)));
+                    }
+                }
+                CountingOutputStream out = new CountingOutputStream();
+
+                long rows = context.getBean(ReservationExporter.class).export(
+                        new ReservationFilter(ReservationStatus.PENDING_PAYMENT, null, null, null, null), ExportFormat.CSV, out);
+
+                System.out.println("exported " + rows + " rows, " + out.bytes + " bytes, max heap "
+                        + Runtime.getRuntime().maxMemory() / (1024 * 1024) + " MB");
+            }
+        }
+    }
+}
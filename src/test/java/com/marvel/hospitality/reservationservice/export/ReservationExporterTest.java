@@ -0,0 +1,94 @@
+package com.marvel.hospitality.reservationservice.export;
+
+import com.marvel.hospitality.reservationservice.dto.ReservationFilter;
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import com.marvel.hospitality.reservationservice.model.ExportFormat;
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
+import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import com.marvel.hospitality.reservationservice.model.RoomSegment;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationExporterTest {
+
+    private static final ReservationView PLAIN = new ReservationView("ID000001", "John Doe", "101",
+            LocalDate.of(2100, 1, 1), LocalDate.of(2100, 1, 5), RoomSegment.MEDIUM, PaymentMode.CASH,
+            ReservationStatus.CONFIRMED, LocalDateTime.of(2099, 12, 1, 10, 30));
+    private static final ReservationView QUOTED = new ReservationView("ID000002", "Doe, \"JD\" John", "102",
+            LocalDate.of(2100, 1, 1), LocalDate.of(2100, 1, 5), RoomSegment.LARGE, PaymentMode.BANK_TRANSFER,
+            ReservationStatus.PENDING_PAYMENT, null);
+
+    @Mock
+    private ReservationRepository repository;
+
+    private MeterRegistry meterRegistry;
+    private ReservationExporter exporter;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        exporter = new ReservationExporter(repository, JsonMapper.builder().build(), meterRegistry);
+    }
+
+    @Test
+    void export_csv_writesHeaderAndQuotesSpecialCharacters() throws Exception {
+        AtomicBoolean closed = new AtomicBoolean();
+        when(repository.streamViews(new ReservationFilter(ReservationStatus.CONFIRMED, null, null, null, null)))
+                .thenReturn(Stream.of(PLAIN, QUOTED).onClose(() -> closed.set(true)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exporter.export(new ReservationFilter(ReservationStatus.CONFIRMED, null, null, null, null),
+                ExportFormat.CSV, out);
+
+        assertThat(rows).isEqualTo(2);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                reservationId,customerName,roomNumber,startDate,endDate,segment,paymentMode,status,createdAt
+                ID000001,John Doe,101,2100-01-01,2100-01-05,MEDIUM,CASH,CONFIRMED,2099-12-01T10:30
+                ID000002,"Doe, ""JD"" John",102,2100-01-01,2100-01-05,LARGE,BANK_TRANSFER,PENDING_PAYMENT,
+                """);
+        assertThat(closed).isTrue();
+        assertThat(meterRegistry.counter("reservation.export.rows", "format", "CSV").count()).isEqualTo(2);
+    }
+
+    @Test
+    void export_ndjson_writesOneObjectPerLine() throws Exception {
+        when(repository.streamViews(new ReservationFilter(null, null, "101", null, null))).thenReturn(Stream.of(PLAIN));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        exporter.export(new ReservationFilter(null, null, "101", null, null), ExportFormat.NDJSON, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(1);
+        assertThat(lines[0]).startsWith("{").endsWith("}")
+                .contains("\"reservationId\":\"ID000001\"", "\"startDate\":\"2100-01-01\"", "\"status\":\"CONFIRMED\"");
+    }
+
+    @Test
+    void export_noMatches_csvHasOnlyHeader() throws Exception {
+        when(repository.streamViews(new ReservationFilter(null, null, null, null, null))).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long rows = exporter.export(new ReservationFilter(null, null, null, null, null), ExportFormat.CSV, out);
+
+        assertThat(rows).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo(ReservationExporter.CSV_HEADER + "\n");
+    }
+}
@@ -0,0 +1,162 @@
+package com.marvel.hospitality.reservationservice.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TimeOrderedReservationIdGeneratorTest {
+
+    private static final Pattern RESERVATION_ID_PATTERN = Pattern.compile("^[A-Z0-9]{8}$");
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 50_000;
+
+    @Test
+    void nextId_matchesTheReservationIdFormat() {
+        ReservationIdGenerator generator = new TimeOrderedReservationIdGenerator(15);
+
+        for (int i = 0; i < 1_000; i++) {
+            assertThat(generator.nextId()).matches(RESERVATION_ID_PATTERN);
+        }
+    }
+
+    @Test
+    void nextId_isOrderedByTimeThenSequence() {
+        AtomicLong clock = new AtomicLong(Instant.parse("2026-03-01T10:00:00Z").toEpochMilli());
+        ReservationIdGenerator generator = new TimeOrderedReservationIdGenerator(3, clock::get);
+
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            ids.add(generator.nextId());
+        }
+        clock.addAndGet(60_000);
+        ids.add(generator.nextId());
+
+        assertThat(ids).isSorted().doesNotHaveDuplicates();
+    }
+
+    @Test
+    void nextId_differsAcrossNodesAtTheSameInstant() {
+        long now = Instant.parse("2026-03-01T10:00:00Z").toEpochMilli();
+
+        String node1 = new TimeOrderedReservationIdGenerator(1, () -> now).nextId();
+        String node2 = new TimeOrderedReservationIdGenerator(2, () -> now).nextId();
+
+        assertThat(node1).isNotEqualTo(node2);
+    }
+
+    @Test
+    void nextId_doesNotRepeatWhenTheClockGoesBackwards() {
+        AtomicLong clock = new AtomicLong(Instant.parse("2026-03-01T10:00:00Z").toEpochMilli());
+        ReservationIdGenerator generator = new TimeOrderedReservationIdGenerator(0, clock::get);
+
+        String before = generator.nextId();
+        clock.addAndGet(-3_600_000);
+
+        assertThat(generator.nextId()).isGreaterThan(before);
+    }
+
+    @Test
+    void continueAfter_restartAfterBorrowing_doesNotReissueIds() {
+        AtomicLong clock = new AtomicLong(Instant.parse("2026-03-01T10:00:00Z").toEpochMilli());
+        TimeOrderedReservationIdGenerator before = new TimeOrderedReservationIdGenerator(4, clock::get);
+        String lastIssued = null;
+        for (int i = 0; i < 1_000; i++) {
+            lastIssued = before.nextId();
+        }
+
+        TimeOrderedReservationIdGenerator restarted = new TimeOrderedReservationIdGenerator(4, clock::get);
+        restarted.continueAfter(lastIssued);
+
+        assertThat(restarted.nextId()).isGreaterThan(lastIssued);
+    }
+
+    @Test
+    void continueAfter_idOfAnotherNode_skipsToTheNextSecond() {
+        AtomicLong clock = new AtomicLong(Instant.parse("2026-03-01T10:00:00Z").toEpochMilli());
+        String otherNode = new TimeOrderedReservationIdGenerator(2, clock::get).nextId();
+        List<String> ownBefore = new ArrayList<>();
+        TimeOrderedReservationIdGenerator own = new TimeOrderedReservationIdGenerator(1, clock::get);
+        for (int i = 0; i < 256; i++) {
+            ownBefore.add(own.nextId());
+        }
+
+        TimeOrderedReservationIdGenerator restarted = new TimeOrderedReservationIdGenerator(1, clock::get);
+        restarted.continueAfter(otherNode);
+
+        assertThat(restarted.nextId()).isGreaterThan(otherNode).isNotIn(ownBefore);
+    }
+
+    @Test
+    void highestIdWithin_boundsIdsIssuedUpToTheHorizon() {
+        long now = Instant.parse("2026-03-01T10:00:00Z").toEpochMilli();
+        TimeOrderedReservationIdGenerator generator = new TimeOrderedReservationIdGenerator(15, () -> now);
+        String inAnHour = new TimeOrderedReservationIdGenerator(15, () -> now + 3_600_000).nextId();
+        String inTwoDays = new TimeOrderedReservationIdGenerator(0, () -> now + 172_800_000).nextId();
+
+        String bound = generator.highestIdWithin(Duration.ofDays(1));
+
+        assertThat(bound).matches(RESERVATION_ID_PATTERN).isGreaterThan(inAnHour).isLessThan(inTwoDays);
+    }
+
+    @Test
+    void continueAfter_rejectsMalformedIds() {
+        TimeOrderedReservationIdGenerator generator = new TimeOrderedReservationIdGenerator(0);
+
+        assertThatThrownBy(() -> generator.continueAfter("abc")).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> generator.continueAfter("ABCD-123")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void constructor_rejectsNodeIdOutOfRange() {
+        assertThatThrownBy(() -> new TimeOrderedReservationIdGenerator(16)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new TimeOrderedReservationIdGenerator(-1)).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void nextId_failsOnceTheClockLeavesTheIdRange() {
+        long afterRange = (TimeOrderedReservationIdGenerator.EPOCH_SECOND
+                + (1L << TimeOrderedReservationIdGenerator.TIME_BITS)) * 1000;
+        ReservationIdGenerator generator = new TimeOrderedReservationIdGenerator(0, () -> afterRange);
+
+        assertThatThrownBy(generator::nextId).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void nextId_isUniqueAcrossThreads_andFast() throws Exception {
+        ReservationIdGenerator generator = new TimeOrderedReservationIdGenerator(7);
+        Set<String> ids = ConcurrentHashMap.newKeySet(THREADS * IDS_PER_THREAD);
+        CountDownLatch start = new CountDownLatch(1);
+
+        long began;
+        try (ExecutorService executor = Executors.newFixedThreadPool(THREADS)) {
+            for (int t = 0; t < THREADS; t++) {
+                executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < IDS_PER_THREAD; i++) {
+                        ids.add(generator.nextId());
+                    }
+                    return null;
+                });
+            }
+            began = System.nanoTime();
+            start.countDown();
+        }
+        long elapsedMillis = (System.nanoTime() - began) / 1_000_000;
+
+        assertThat(ids).hasSize(THREADS * IDS_PER_THREAD).allMatch(id -> RESERVATION_ID_PATTERN.matcher(id).matches());
+        assertThat(elapsedMillis).isLessThan(5_000);
+    }
+}
@@ -0,0 +1,87 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class OrderedParallelExecutorTest {
+
+    private final OrderedParallelExecutor executor = new OrderedParallelExecutor(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.close();
+    }
+
+    @Test
+    void processAll_keepsListOrderWithinEachKey() {
+        List<Integer> items = IntStream.range(0, 200).boxed().toList();
+        Map<Integer, List<Integer>> seenByKey = new ConcurrentHashMap<>();
+
+        Optional<OrderedParallelExecutor.Failure> failure = executor.processAll(items, i -> i % 7, i -> {
+            sleepMillis(1);
+            seenByKey.computeIfAbsent(i % 7, key -> new CopyOnWriteArrayList<>()).add(i);
+        });
+
+        assertThat(failure).isEmpty();
+        assertThat(seenByKey).hasSize(7);
+        seenByKey.forEach((key, seen) -> assertThat(seen).isSorted().hasSize(key < 4 ? 29 : 28));
+    }
+
+    @Test
+    void processAll_runsDistinctKeysConcurrentlyWithinLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+
+        executor.processAll(IntStream.range(0, 40).boxed().toList(), i -> i, i -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            sleepMillis(20);
+            inFlight.decrementAndGet();
+        });
+
+        assertThat(peak.get()).isBetween(2, 4);
+    }
+
+    @Test
+    void processAll_reportsSmallestFailedIndexAndStopsThatKey() {
+        List<String> processed = new CopyOnWriteArrayList<>();
+        List<String> items = List.of("a1", "b1", "a2", "b2", "a3");
+
+        Optional<OrderedParallelExecutor.Failure> failure = executor.processAll(items, item -> item.charAt(0), item -> {
+            if (item.equals("a2") || item.equals("b2")) {
+                throw new IllegalStateException(item);
+            }
+            processed.add(item);
+        });
+
+        assertThat(failure).hasValueSatisfying(f -> {
+            assertThat(f.index()).isEqualTo(2);
+            assertThat(f.cause()).hasMessage("a2");
+        });
+        assertThat(processed).containsExactlyInAnyOrder("a1", "b1");
+    }
+
+    @Test
+    void constructor_rejectsNonPositiveLimit() {
+        assertThatThrownBy(() -> new OrderedParallelExecutor(0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static void sleepMillis(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
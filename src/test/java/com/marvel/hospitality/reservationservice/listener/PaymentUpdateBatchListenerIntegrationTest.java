@@ -0,0 +1,130 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marvel.hospitality.reservationservice.dto.PaymentUpdateEvent;
+import com.marvel.hospitality.reservationservice.entity.Reservation;
+import com.marvel.hospitality.reservationservice.model.PaymentMode;
+import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.listener.KafkaMessageListenerContainer;
+import org.springframework.kafka.listener.MessageListener;
+import org.springframework.kafka.test.EmbeddedKafkaBroker;
+import org.springframework.kafka.test.context.EmbeddedKafka;
+import org.springframework.kafka.test.utils.ContainerTestUtils;
+import org.springframework.kafka.test.utils.KafkaTestUtils;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.stream.IntStream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "app.kafka.payment-update.listener-mode=batch")
+@ActiveProfiles("test")
+@EnableKafka
+@EmbeddedKafka(
+partitions = 1,
+topics = {PaymentUpdateBatchListenerIntegrationTest.MAIN_TOPIC, PaymentUpdateBatchListenerIntegrationTest.DLT_TOPIC})
+@DirtiesContext
+class PaymentUpdateBatchListenerIntegrationTest {
+
+    public static final String MAIN_TOPIC = "bank-transfer-payment-update";
+    public static final String DLT_TOPIC = "bank-transfer-payment-update-dlt";
+
+    @Autowired
+    private KafkaTemplate<String, String> kafkaTemplate;
+    @Autowired
+    private ReservationRepository repository;
+    @Autowired
+    private EmbeddedKafkaBroker embeddedKafka;
+
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private BlockingQueue<ConsumerRecord<String, String>> dlqRecords;
+    private KafkaMessageListenerContainer<String, String> container;
+
+    @BeforeEach
+    void setUp() {
+        repository.deleteAll();
+        dlqRecords = new LinkedBlockingQueue<>();
+
+        var consumerProps = KafkaTestUtils.consumerProps(embeddedKafka, "test-group-" + System.currentTimeMillis(), false);
+        var cf = new DefaultKafkaConsumerFactory<String, String>(consumerProps);
+        var containerProps = new ContainerProperties(DLT_TOPIC);
+
+        container = new KafkaMessageListenerContainer<>(cf, containerProps);
+        container.setupMessageListener((MessageListener<String, String>) dlqRecords::add);
+        container.start();
+
+        ContainerTestUtils.waitForAssignment(container, embeddedKafka.getPartitionsPerTopic());
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (container != null) container.stop();
+    }
+
+    @Test
+    void burstOfValidMessages_confirmsAllReservations() throws Exception {
+        List<String> ids = IntStream.range(0, 50).mapToObj("BATCH%03d"::formatted).toList();
+        ids.forEach(id -> saveReservation(id, ReservationStatus.PENDING_PAYMENT));
+
+        for (String id : ids) {
+            sendEvent(new PaymentUpdateEvent("pay-" + id, "ACC-1", BigDecimal.TEN, "E2E1234567 " + id));
+        }
+
+        await().atMost(10, SECONDS).untilAsserted(() ->
+                assertThat(repository.findAllById(ids)).extracting(Reservation::getStatus)
+                        .hasSize(ids.size())
+                        .containsOnly(ReservationStatus.CONFIRMED));
+        assertThat(dlqRecords.poll(2, SECONDS)).isNull();
+    }
+
+    @Test
+    void invalidMessageInBatch_onlyItGoesToDLQ() throws Exception {
+        saveReservation("GOOD0001", ReservationStatus.PENDING_PAYMENT);
+        saveReservation("GOOD0002", ReservationStatus.PENDING_PAYMENT);
+
+        sendEvent(new PaymentUpdateEvent("pay-1", "ACC-1", BigDecimal.ONE, "E2E1234567 GOOD0001"));
+        sendEvent(new PaymentUpdateEvent("pay-2", "ACC-1", BigDecimal.ONE, "E2E1234567 bad00002"));
+        sendEvent(new PaymentUpdateEvent("pay-3", "ACC-1", BigDecimal.ONE, "E2E1234567 GOOD0002"));
+
+        ConsumerRecord<String, String> consumerRecord = dlqRecords.poll(15, SECONDS);
+        assertThat(consumerRecord).isNotNull();
+        assertThat(consumerRecord.value()).contains("bad00002");
+
+        await().atMost(10, SECONDS).untilAsserted(() ->
+                assertThat(repository.findAllById(List.of("GOOD0001", "GOOD0002"))).extracting(Reservation::getStatus)
+                        .containsExactly(ReservationStatus.CONFIRMED, ReservationStatus.CONFIRMED));
+        assertThat(dlqRecords.poll(2, SECONDS)).isNull();
+    }
+
+    private void saveReservation(String id, ReservationStatus status) {
+        repository.save(Reservation.builder()
+                .id(id)
+                .status(status)
+                .paymentMode(PaymentMode.BANK_TRANSFER)
+                .build());
+    }
+
+    private void sendEvent(PaymentUpdateEvent event) throws Exception {
+        kafkaTemplate.send(MAIN_TOPIC, objectMapper.writeValueAsString(event)).get();
+    }
+}
@@ -0,0 +1,65 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PaymentUpdateConsumerEndpointTest {
+
+    private static final String TOPIC = "bank-transfer-payment-update";
+
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private PaymentUpdateConsumerEndpoint endpoint;
+
+    @BeforeEach
+    void setUp() {
+        endpoint = new PaymentUpdateConsumerEndpoint(meterRegistry);
+        ReflectionTestUtils.setField(endpoint, "topic", TOPIC);
+    }
+
+    @Test
+    void status_sumsLagOverPartitionsOfTheTopic() {
+        lag(TOPIC, "1", 7);
+        lag(TOPIC, "0", 3);
+        lag("other-topic", "0", 100);
+        Gauge.builder("kafka.consumer.fetch.manager.records.consumed.rate", () -> 12.5)
+                .tags("topic", TOPIC, "client.id", "consumer-1").register(meterRegistry);
+        meterRegistry.timer("payment.update.latency", "topic", TOPIC).record(Duration.ofMillis(40));
+        meterRegistry.counter("payment.update.dlt.published", "exception", "IllegalStateException").increment(2);
+
+        PaymentUpdateConsumerEndpoint.ConsumerStatus status = endpoint.status();
+
+        assertThat(status.totalLag()).isEqualTo(10);
+        assertThat(status.partitions()).containsExactly(
+                new PaymentUpdateConsumerEndpoint.PartitionLag(0, 3),
+                new PaymentUpdateConsumerEndpoint.PartitionLag(1, 7));
+        assertThat(status.recordsPerSecond()).isEqualTo(12.5);
+        assertThat(status.confirmed()).isEqualTo(1);
+        assertThat(status.maxLatencyMillis()).isEqualTo(40);
+        assertThat(status.deadLettered()).isEqualTo(2);
+    }
+
+    @Test
+    void status_beforeAnyAssignment_isEmpty() {
+        Gauge.builder("kafka.consumer.fetch.manager.records.lag", () -> Double.NaN)
+                .tags("topic", TOPIC, "partition", "0").register(meterRegistry);
+
+        PaymentUpdateConsumerEndpoint.ConsumerStatus status = endpoint.status();
+
+        assertThat(status.totalLag()).isZero();
+        assertThat(status.confirmed()).isZero();
+        assertThat(status.deadLettered()).isZero();
+    }
+
+    private void lag(String topic, String partition, double lag) {
+        Gauge.builder("kafka.consumer.fetch.manager.records.lag", () -> lag)
+                .tags("topic", topic, "partition", partition, "client.id", "consumer-1").register(meterRegistry);
+    }
+}
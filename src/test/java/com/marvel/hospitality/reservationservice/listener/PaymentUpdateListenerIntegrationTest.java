@@ -5,7 +5,10 @@ import com.marvel.hospitality.reservationservice.dto.PaymentUpdateEvent;
 import com.marvel.hospitality.reservationservice.entity.Reservation;
 import com.marvel.hospitality.reservationservice.model.PaymentMode;
 import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import com.marvel.hospitality.reservationservice.repository.ProcessedPaymentRepository;
 import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -50,6 +53,10 @@ class PaymentUpdateListenerIntegrationTest {
     @Autowired
     private ReservationRepository repository;
     @Autowired
+    private ProcessedPaymentRepository processedPaymentRepository;
+    @Autowired
+    private MeterRegistry meterRegistry;
+    @Autowired
     private EmbeddedKafkaBroker embeddedKafka;
 
 
@@ -63,6 +70,8 @@ class PaymentUpdateListenerIntegrationTest {
         dlqRecords = new LinkedBlockingQueue<>();
 
         var consumerProps = KafkaTestUtils.consumerProps(embeddedKafka, "test-group-" + System.currentTimeMillis(), false);
+        // start at the end of the DLT: dead letters of earlier tests must not be taken for this test's
+        consumerProps.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "latest");
         var cf = new DefaultKafkaConsumerFactory<String, String>(consumerProps);
         var containerProps = new ContainerProperties(DLT_TOPIC);
 
@@ -103,11 +112,15 @@ class PaymentUpdateListenerIntegrationTest {
 
     @Test
     void malformedDescription_sentToDLQ() throws Exception {
+        double deadLetteredBefore = meterRegistry.counter("payment.update.dlt.published",
+                "exception", "IllegalPaymentUpdateMessageFormatException").count();
         sendEvent(new PaymentUpdateEvent("pay-004", "ACC-111", BigDecimal.ONE, "E2E1234567"));
 
         ConsumerRecord<String, String> consumerRecord = dlqRecords.poll(15, SECONDS);
         assertThat(consumerRecord).isNotNull();
         assertThat(consumerRecord.value()).contains("E2E1234567");
+        await().atMost(5, SECONDS).untilAsserted(() -> assertThat(meterRegistry.counter("payment.update.dlt.published",
+                "exception", "IllegalPaymentUpdateMessageFormatException").count()).isEqualTo(deadLetteredBefore + 1));
     }
 
     @Test
@@ -132,6 +145,37 @@ class PaymentUpdateListenerIntegrationTest {
         assertThat(repository.findById(nonExisting)).isEmpty();
     }
 
+    @Test
+    void redeliveredPayment_isAppliedOnlyOnce() throws Exception {
+        String id = "DUPL0001";
+        saveReservation(id, ReservationStatus.PENDING_PAYMENT);
+        PaymentUpdateEvent event = new PaymentUpdateEvent("pay-006", "ACC-333", BigDecimal.TEN, "E2E1234567 " + id);
+
+        sendEvent(event);
+        await().atMost(10, SECONDS).untilAsserted(() ->
+                assertThat(repository.findById(id).get().getStatus()).isEqualTo(ReservationStatus.CONFIRMED));
+        assertThat(processedPaymentRepository.findById("pay-006")).get()
+                .extracting("reservationId").isEqualTo(id);
+
+        // put the reservation back to pending: a replay of the same transfer must not confirm it again
+        Reservation reservation = repository.findById(id).get();
+        reservation.setStatus(ReservationStatus.PENDING_PAYMENT);
+        repository.save(reservation);
+        double duplicatesBefore = meterRegistry.counter("payment.update.dedup", "result", "memory_hit").count();
+        sendEvent(event);
+
+        String marker = "MARK0001";
+        saveReservation(marker, ReservationStatus.PENDING_PAYMENT);
+        sendEvent(new PaymentUpdateEvent("pay-007", "ACC-333", BigDecimal.TEN, "E2E1234567 " + marker));
+        await().atMost(10, SECONDS).untilAsserted(() ->
+                assertThat(repository.findById(marker).get().getStatus()).isEqualTo(ReservationStatus.CONFIRMED));
+
+        assertThat(repository.findById(id).get().getStatus()).isEqualTo(ReservationStatus.PENDING_PAYMENT);
+        assertThat(meterRegistry.counter("payment.update.dedup", "result", "memory_hit").count())
+                .isEqualTo(duplicatesBefore + 1);
+        assertThat(dlqRecords.poll(1, SECONDS)).isNull();
+    }
+
     private void saveReservation(String id, ReservationStatus status) {
         repository.save(Reservation.builder()
                 .id(id)
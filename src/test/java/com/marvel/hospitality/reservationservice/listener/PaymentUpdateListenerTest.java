@@ -1,10 +1,17 @@
 package com.marvel.hospitality.reservationservice.listener;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.marvel.hospitality.reservationservice.dto.BankTransferPayment;
 import com.marvel.hospitality.reservationservice.dto.PaymentUpdateEvent;
 import com.marvel.hospitality.reservationservice.exception.IllegalPaymentUpdateMessageFormatException;
 import com.marvel.hospitality.reservationservice.service.ReservationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.apache.kafka.common.record.TimestampType;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -12,10 +19,17 @@ import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.CsvSource;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
 import org.springframework.kafka.support.Acknowledgment;
+import tools.jackson.databind.json.JsonMapper;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
@@ -28,17 +42,26 @@ class PaymentUpdateListenerTest {
     private Acknowledgment acknowledgment;
 
     private PaymentUpdateListener listener;
+    private final OrderedParallelExecutor parallelExecutor = new OrderedParallelExecutor(4);
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     @BeforeEach
     void setUp() {
-        listener = new PaymentUpdateListener(reservationService);
+        listener = new PaymentUpdateListener(reservationService, new PaymentUpdateReader(JsonMapper.builder().build()),
+                parallelExecutor, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        parallelExecutor.close();
     }
 
     @Test
     void should_throwException_when_payloadIsNotAValidJson() {
         String malformedJson = "{ \"invalid\": \"json\" ";
-        ConsumerRecord<String, String> consumerRecord = new ConsumerRecord<>("topic", 0, 0, null, malformedJson);
+        ConsumerRecord<String, byte[]> consumerRecord = new ConsumerRecord<>("topic", 0, 0, null,
+                malformedJson.getBytes(StandardCharsets.UTF_8));
 
         assertThatThrownBy(() -> listener.onMessage(consumerRecord, acknowledgment))
                 .isInstanceOf(IllegalPaymentUpdateMessageFormatException.class)
@@ -51,12 +74,12 @@ class PaymentUpdateListenerTest {
     @Test
     void should_confirmPaymentAndAcknowledge_when_messageIsValid() throws Exception {
         String validId = "CONF1234";
-        String payload = createPayload("E2E-REF " + validId);
-        ConsumerRecord<String, String> consumerRecord = new ConsumerRecord<>("topic", 0, 0, null, payload);
+        byte[] payload = createPayload("E2E-REF " + validId);
+        ConsumerRecord<String, byte[]> consumerRecord = new ConsumerRecord<>("topic", 0, 0, null, payload);
 
         listener.onMessage(consumerRecord, acknowledgment);
 
-        verify(reservationService).confirmBankTransferPayment(validId);
+        verify(reservationService).confirmBankTransferPayment(new BankTransferPayment("TXN123", validId));
         verify(acknowledgment).acknowledge();
     }
 
@@ -70,8 +93,8 @@ class PaymentUpdateListenerTest {
     void should_throwException_when_payloadIsInvalid(String description, String expectedErrorMessage) throws Exception {
 
         String finalDescription = "NULL".equals(description) ? null : description;
-        String payload = createPayload(finalDescription);
-        ConsumerRecord<String, String> consumerRecord = new ConsumerRecord<>("topic", 0, 0, null, payload);
+        byte[] payload = createPayload(finalDescription);
+        ConsumerRecord<String, byte[]> consumerRecord = new ConsumerRecord<>("topic", 0, 0, null, payload);
 
         assertThatThrownBy(() -> listener.onMessage(consumerRecord, acknowledgment))
                 .isInstanceOf(IllegalPaymentUpdateMessageFormatException.class)
@@ -81,9 +104,109 @@ class PaymentUpdateListenerTest {
         verifyNoInteractions(acknowledgment);
     }
 
-    private String createPayload(String desc) throws Exception {
+
+    @Test
+    void should_confirmWholeBatchAndAcknowledgeOnce_when_allMessagesAreValid() throws Exception {
+        List<ConsumerRecord<String, byte[]>> batch = List.of(
+                new ConsumerRecord<>("topic", 0, 0, null, createPayload("E2E-REF CONF0001")),
+                new ConsumerRecord<>("topic", 0, 1, null, createPayload("E2E-REF CONF0002")),
+                new ConsumerRecord<>("topic", 0, 2, null, createPayload("E2E-REF CONF0003")));
+
+        listener.onMessages(batch, acknowledgment);
+
+        verify(reservationService).confirmBankTransferPayments(List.of(new BankTransferPayment("TXN123", "CONF0001"),
+                new BankTransferPayment("TXN123", "CONF0002"), new BankTransferPayment("TXN123", "CONF0003")));
+        verify(acknowledgment, times(1)).acknowledge();
+        verifyNoMoreInteractions(reservationService);
+    }
+
+    @Test
+    void should_confirmRecordsBeforeFailureAndReportIndex_when_batchContainsInvalidMessage() throws Exception {
+        List<ConsumerRecord<String, byte[]>> batch = List.of(
+                new ConsumerRecord<>("topic", 0, 0, null, createPayload("E2E-REF CONF0001")),
+                new ConsumerRecord<>("topic", 0, 1, null, createPayload("E2E-REF bad")),
+                new ConsumerRecord<>("topic", 0, 2, null, createPayload("E2E-REF CONF0003")));
+
+        assertThatThrownBy(() -> listener.onMessages(batch, acknowledgment))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> {
+                    assertThat(e.getIndex()).isEqualTo(1);
+                    assertThat(e.getCause()).isInstanceOf(IllegalPaymentUpdateMessageFormatException.class);
+                });
+
+        verify(reservationService).confirmBankTransferPayments(List.of(new BankTransferPayment("TXN123", "CONF0001")));
+        verifyNoMoreInteractions(reservationService);
+        verifyNoInteractions(acknowledgment);
+    }
+
+    @Test
+    void should_confirmEachRecordAndAcknowledgeOnce_when_processingBatchInParallel() throws Exception {
+        List<ConsumerRecord<String, byte[]>> batch = List.of(
+                new ConsumerRecord<>("topic", 0, 0, null, createPayload("E2E-REF CONF0001")),
+                new ConsumerRecord<>("topic", 0, 1, null, createPayload("E2E-REF CONF0002")),
+                new ConsumerRecord<>("topic", 1, 0, null, createPayload("E2E-REF CONF0003")));
+
+        listener.onMessagesInParallel(batch, acknowledgment);
+
+        verify(reservationService).confirmBankTransferPayment(new BankTransferPayment("TXN123", "CONF0001"));
+        verify(reservationService).confirmBankTransferPayment(new BankTransferPayment("TXN123", "CONF0002"));
+        verify(reservationService).confirmBankTransferPayment(new BankTransferPayment("TXN123", "CONF0003"));
+        verify(acknowledgment, times(1)).acknowledge();
+        verifyNoMoreInteractions(reservationService);
+    }
+
+    @Test
+    void should_reportFirstFailedIndexWithoutAcknowledging_when_parallelRecordFails() throws Exception {
+        List<ConsumerRecord<String, byte[]>> batch = List.of(
+                new ConsumerRecord<>("topic", 0, 0, null, createPayload("E2E-REF CONF0001")),
+                new ConsumerRecord<>("topic", 0, 1, null, createPayload("E2E-REF CONF0002")),
+                new ConsumerRecord<>("topic", 0, 2, null, createPayload("E2E-REF CONF0001")));
+        doThrow(new IllegalStateException("db down"))
+                .when(reservationService).confirmBankTransferPayment(new BankTransferPayment("TXN123", "CONF0001"));
+
+        assertThatThrownBy(() -> listener.onMessagesInParallel(batch, acknowledgment))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> {
+                    assertThat(e.getIndex()).isZero();
+                    assertThat(e.getCause()).isInstanceOf(IllegalStateException.class);
+                });
+
+        // the second update of CONF0001 must not overtake the failed first one
+        verify(reservationService, times(1)).confirmBankTransferPayment(new BankTransferPayment("TXN123", "CONF0001"));
+        verifyNoInteractions(acknowledgment);
+    }
+
+    @Test
+    void should_confirmRecordsBeforeInvalidOneInParallel_when_batchContainsInvalidMessage() throws Exception {
+        List<ConsumerRecord<String, byte[]>> batch = List.of(
+                new ConsumerRecord<>("topic", 0, 0, null, createPayload("E2E-REF CONF0001")),
+                new ConsumerRecord<>("topic", 0, 1, null, createPayload("E2E-REF bad")),
+                new ConsumerRecord<>("topic", 0, 2, null, createPayload("E2E-REF CONF0003")));
+
+        assertThatThrownBy(() -> listener.onMessagesInParallel(batch, acknowledgment))
+                .isInstanceOfSatisfying(BatchListenerFailedException.class, e -> {
+                    assertThat(e.getIndex()).isEqualTo(1);
+                    assertThat(e.getCause()).isInstanceOf(IllegalPaymentUpdateMessageFormatException.class);
+                });
+
+        verify(reservationService).confirmBankTransferPayment(new BankTransferPayment("TXN123", "CONF0001"));
+        verifyNoMoreInteractions(reservationService);
+        verifyNoInteractions(acknowledgment);
+    }
+
+    @Test
+    void should_recordLatencyFromRecordTimestamp_when_messageIsConfirmed() throws Exception {
+        ConsumerRecord<String, byte[]> consumerRecord = new ConsumerRecord<>("topic", 0, 0,
+                System.currentTimeMillis() - 2_000, TimestampType.CREATE_TIME, 0, 0, null,
+                createPayload("E2E-REF CONF0001"), new RecordHeaders(), Optional.empty());
+
+        listener.onMessage(consumerRecord, acknowledgment);
+
+        Timer latency = meterRegistry.get("payment.update.latency").tag("topic", "topic").timer();
+        assertThat(latency.count()).isEqualTo(1);
+        assertThat(latency.totalTime(TimeUnit.MILLISECONDS)).isGreaterThanOrEqualTo(2_000);
+    }
+
+    private byte[] createPayload(String desc) throws Exception {
         PaymentUpdateEvent event = new PaymentUpdateEvent("TXN123", "ACC1", BigDecimal.TEN, desc);
-        return objectMapper.writeValueAsString(event);
+        return objectMapper.writeValueAsBytes(event);
     }
 }
-
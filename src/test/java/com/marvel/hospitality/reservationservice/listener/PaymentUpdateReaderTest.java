@@ -0,0 +1,69 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+import com.marvel.hospitality.reservationservice.exception.IllegalPaymentUpdateMessageFormatException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PaymentUpdateReaderTest {
+
+    private final PaymentUpdateReader reader = new PaymentUpdateReader(JsonMapper.builder().build());
+
+    @Test
+    void should_readPaymentIdAndDescription_when_payloadIsAFullEvent() {
+        PaymentUpdate update = reader.read(bytes("""
+                {"paymentId":"pay-001","debtorAccountNumber":"ACC-987","amountReceived":499.99,
+                 "transactionDescription":"E2E1234567 ABCD1234"}"""));
+
+        assertThat(update).isEqualTo(new PaymentUpdate("pay-001", "E2E1234567 ABCD1234"));
+    }
+
+    @Test
+    void should_skipUnknownProperties_whateverTheirShape() {
+        PaymentUpdate update = reader.read(bytes("""
+                {"meta":{"source":"bank","tags":["a",{"b":[1,2]}]},"transactionDescription":"E2E1234567 ABCD1234",
+                 "amountReceived":"not-a-number","paymentId":42,"extra":null}"""));
+
+        assertThat(update).isEqualTo(new PaymentUpdate("42", "E2E1234567 ABCD1234"));
+    }
+
+    @Test
+    void should_returnNulls_when_fieldsAreMissingOrNull() {
+        assertThat(reader.read(bytes("{}"))).isEqualTo(new PaymentUpdate(null, null));
+        assertThat(reader.read(bytes("{\"transactionDescription\":null}"))).isEqualTo(new PaymentUpdate(null, null));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "{ \"invalid\": \"json\" ",
+            "{\"transactionDescription\":\"E2E1234567 ABCD1234\"",
+            "not json",
+            "",
+            "[{\"transactionDescription\":\"E2E1234567 ABCD1234\"}]",
+            "\"E2E1234567 ABCD1234\"",
+            "{\"transactionDescription\":{\"text\":\"E2E1234567 ABCD1234\"}}",
+            "{\"paymentId\":[\"pay-001\"]}"
+    })
+    void should_throwException_when_payloadIsNotAPaymentUpdateObject(String payload) {
+        assertThatThrownBy(() -> reader.read(bytes(payload)))
+                .isInstanceOf(IllegalPaymentUpdateMessageFormatException.class)
+                .hasMessageContaining("Unable to parse payment update message");
+    }
+
+    @Test
+    void should_throwException_when_payloadIsNull() {
+        assertThatThrownBy(() -> reader.read(null))
+                .isInstanceOf(IllegalPaymentUpdateMessageFormatException.class)
+                .hasMessageContaining("Unable to parse payment update message");
+    }
+
+    private static byte[] bytes(String json) {
+        return json.getBytes(StandardCharsets.UTF_8);
+    }
+}
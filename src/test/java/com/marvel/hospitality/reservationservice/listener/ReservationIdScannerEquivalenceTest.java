@@ -0,0 +1,102 @@
+package com.marvel.hospitality.reservationservice.listener;
+
+import com.marvel.hospitality.reservationservice.exception.IllegalPaymentUpdateMessageFormatException;
+import org.junit.jupiter.api.RepeatedTest;
+import org.junit.jupiter.api.RepetitionInfo;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.Random;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Checks that the hand-written scanner in {@link PaymentUpdateListener#getReservationId(String)}
+ * accepts and rejects exactly what the former trim/split/regex implementation did, on fixed edge
+ * cases and on random descriptions built from characters that matter to either implementation.
+ */
+class ReservationIdScannerEquivalenceTest {
+
+    private static final Pattern RESERVATION_ID_PATTERN = Pattern.compile("^[A-Z0-9]{8}$");
+    private static final String ALPHABET = "  \t\n\r\u0000\u001fABCXYZ0189az-_É  ";
+    private static final int SAMPLES_PER_REPETITION = 20_000;
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+            "", " ", "\t\n", "E2E1234567 ABCD1234", "  E2E1234567 ABCD1234  ", "E2E1234567  ABCD1234",
+            "E2E1234567 ABCD1234 trailing", "E2E1234567 \tABCD1234\t", "E2E1234567\tABCD1234", "E2E1234567",
+            "E2E1234567 abcd1234", "E2E1234567 ABCD123", "E2E1234567 ABCD12345", "X ABCD1234", " ABCD1234",
+            "E2E1234567 ABCD1234\n", "E2E1234567 ÄBCD1234", "E2E1234567 \u0000ABCD1234", "A B", "A  "
+    })
+    void edgeCases_matchLegacyImplementation(String description) {
+        assertSameOutcome(description);
+    }
+
+    @RepeatedTest(10)
+    void randomDescriptions_matchLegacyImplementation(RepetitionInfo repetition) {
+        Random random = new Random(repetition.getCurrentRepetition());
+        for (int i = 0; i < SAMPLES_PER_REPETITION; i++) {
+            assertSameOutcome(random.nextBoolean() ? randomString(random, 24) : nearlyValid(random));
+        }
+        assertSameOutcome(null);
+    }
+
+    private static String randomString(Random random, int maxLength) {
+        int length = random.nextInt(maxLength + 1);
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Well-formed "E2E... ID" descriptions with a few random characters inserted or replaced,
+     * so that both accepted and rejected inputs near the valid format are exercised.
+     */
+    private static String nearlyValid(Random random) {
+        StringBuilder sb = new StringBuilder("E2E1234567 ABCD1234");
+        int edits = random.nextInt(4);
+        for (int i = 0; i < edits; i++) {
+            int position = random.nextInt(sb.length() + 1);
+            char c = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+            if (random.nextBoolean() || position == sb.length()) {
+                sb.insert(position, c);
+            } else {
+                sb.setCharAt(position, c);
+            }
+        }
+        return randomString(random, 2) + sb + randomString(random, 2);
+    }
+
+    private static void assertSameOutcome(String description) {
+        assertThat(outcome(() -> PaymentUpdateListener.getReservationId(description)))
+                .as("description [%s]", description)
+                .isEqualTo(outcome(() -> legacyGetReservationId(description)));
+    }
+
+    private static String outcome(Supplier<String> parser) {
+        try {
+            return "accepted: " + parser.get();
+        } catch (IllegalPaymentUpdateMessageFormatException e) {
+            return "rejected: " + e.getMessage();
+        }
+    }
+
+    private static String legacyGetReservationId(String desc) {
+        if (desc == null || desc.trim().isEmpty()) {
+            throw new IllegalPaymentUpdateMessageFormatException("Missing transactionDescription");
+        }
+        String[] parts = desc.trim().split(" ");
+        if (parts.length < 2) {
+            throw new IllegalPaymentUpdateMessageFormatException("Invalid transactionDescription format - expected E2E<10chars> <reservationId>");
+        }
+        String reservationId = parts[1].trim();
+        if (!RESERVATION_ID_PATTERN.matcher(reservationId).matches()) {
+            throw new IllegalPaymentUpdateMessageFormatException("Invalid reservationId (must be exactly 8 uppercase alphanumeric): " + reservationId);
+        }
+        return reservationId;
+    }
+}
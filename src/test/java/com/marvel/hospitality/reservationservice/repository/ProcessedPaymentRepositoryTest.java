@@ -0,0 +1,49 @@
+package com.marvel.hospitality.reservationservice.repository;
+
+import com.marvel.hospitality.reservationservice.entity.ProcessedPayment;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DataJpaTest
+class ProcessedPaymentRepositoryTest {
+
+    @Autowired
+    private ProcessedPaymentRepository repository;
+
+    @Test
+    void findProcessedIds_returnsOnlyStoredPaymentIds() {
+        repository.saveAll(List.of(
+                new ProcessedPayment("pay-1", "RES00001", LocalDateTime.now()),
+                new ProcessedPayment("pay-2", "RES00002", LocalDateTime.now())));
+
+        assertThat(repository.findProcessedIds(List.of("pay-1", "pay-3", "pay-2")))
+                .containsExactlyInAnyOrder("pay-1", "pay-2");
+    }
+
+    @Test
+    void deleteProcessedBefore_removesOnlyOlderRows() {
+        LocalDateTime cutoff = LocalDateTime.now().minusDays(30);
+        repository.saveAll(List.of(
+                new ProcessedPayment("pay-old", "RES00001", cutoff.minusSeconds(1)),
+                new ProcessedPayment("pay-new", "RES00002", cutoff.plusSeconds(1))));
+
+        assertThat(repository.deleteProcessedBefore(cutoff)).isEqualTo(1);
+        assertThat(repository.findProcessedIds(List.of("pay-old", "pay-new"))).containsExactly("pay-new");
+    }
+
+    @Test
+    void save_samePaymentIdTwice_failsInsteadOfMerging() {
+        repository.saveAndFlush(new ProcessedPayment("pay-1", "RES00001", LocalDateTime.now()));
+
+        assertThatThrownBy(() -> repository.saveAndFlush(new ProcessedPayment("pay-1", "RES00002", LocalDateTime.now())))
+                .isInstanceOf(DataIntegrityViolationException.class);
+    }
+}
@@ -1,23 +1,35 @@
 package com.marvel.hospitality.reservationservice.repository;
 
+import com.marvel.hospitality.reservationservice.dto.ReservationFilter;
+import com.marvel.hospitality.reservationservice.dto.ReservationView;
+import com.marvel.hospitality.reservationservice.dto.RoomStay;
 import com.marvel.hospitality.reservationservice.entity.Reservation;
 import com.marvel.hospitality.reservationservice.model.PaymentMode;
 import com.marvel.hospitality.reservationservice.model.ReservationStatus;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.data.jpa.test.autoconfigure.DataJpaTest;
+import org.springframework.data.domain.Limit;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @DataJpaTest
 class ReservationRepositoryTest {
 
     @Autowired
     private ReservationRepository reservationRepository;
+    @Autowired
+    private EntityManager entityManager;
 
     @Test
     @DisplayName("Should find reservations matching status, payment mode, and date (inclusive)")
@@ -68,4 +80,251 @@ class ReservationRepositoryTest {
         assertThat(results).extracting(Reservation::getCustomerName)
                 .containsExactlyInAnyOrder("Valid Past", "Valid Exact");
     }
+
+    @Test
+    @DisplayName("Should project stays that are not cancelled and end after the given date")
+    void shouldFindStaysEndingAfterDate() {
+        LocalDate today = LocalDate.of(2024, 1, 10);
+
+        Reservation ongoing = Reservation.builder()
+                .roomNumber("101")
+                .status(ReservationStatus.CONFIRMED)
+                .startDate(LocalDate.of(2024, 1, 8))
+                .endDate(LocalDate.of(2024, 1, 12))
+                .build();
+
+        Reservation finished = Reservation.builder()
+                .roomNumber("102")
+                .status(ReservationStatus.CONFIRMED)
+                .startDate(LocalDate.of(2024, 1, 5))
+                .endDate(today)
+                .build();
+
+        Reservation cancelled = Reservation.builder()
+                .roomNumber("103")
+                .status(ReservationStatus.CANCELLED)
+                .startDate(LocalDate.of(2024, 1, 11))
+                .endDate(LocalDate.of(2024, 1, 14))
+                .build();
+
+        reservationRepository.saveAll(List.of(ongoing, finished, cancelled));
+
+        List<RoomStay> stays = reservationRepository.findStaysEndingAfter(ReservationStatus.CANCELLED, today);
+
+        assertThat(stays).extracting(RoomStay::roomNumber).containsExactly("101");
+        assertThat(stays.getFirst().reservationId()).isEqualTo(ongoing.getId());
+    }
+
+    @Test
+    @DisplayName("Should select overdue stays in bounded chunks and bulk update only rows still in the expected status")
+    void shouldCancelOverdueStaysInChunks() {
+        LocalDate threshold = LocalDate.of(2024, 1, 10);
+        List<Reservation> overdue = IntStream.range(0, 5)
+                .mapToObj(i -> Reservation.builder()
+                        .customerName("Overdue " + i)
+                        .roomNumber("20" + i)
+                        .status(ReservationStatus.PENDING_PAYMENT)
+                        .paymentMode(PaymentMode.BANK_TRANSFER)
+                        .startDate(threshold.minusDays(i))
+                        .endDate(threshold.plusDays(1))
+                        .build())
+                .toList();
+        Reservation notYetDue = Reservation.builder()
+                .customerName("Later")
+                .status(ReservationStatus.PENDING_PAYMENT)
+                .paymentMode(PaymentMode.BANK_TRANSFER)
+                .startDate(threshold.plusDays(1))
+                .build();
+        Reservation card = Reservation.builder()
+                .customerName("Card")
+                .status(ReservationStatus.PENDING_PAYMENT)
+                .paymentMode(PaymentMode.CREDIT_CARD)
+                .startDate(threshold)
+                .build();
+        reservationRepository.saveAll(overdue);
+        reservationRepository.saveAll(List.of(notYetDue, card));
+
+        List<RoomStay> firstChunk = reservationRepository.findStaysStartingOnOrBefore(
+                ReservationStatus.PENDING_PAYMENT, PaymentMode.BANK_TRANSFER, threshold, Limit.of(3));
+        List<String> ids = firstChunk.stream().map(RoomStay::reservationId).toList();
+        LocalDateTime cancelledAt = LocalDateTime.of(2024, 1, 10, 12, 0);
+        int updated = reservationRepository.updateStatus(ids, ReservationStatus.PENDING_PAYMENT,
+                ReservationStatus.CANCELLED, cancelledAt);
+        int updatedAgain = reservationRepository.updateStatus(ids, ReservationStatus.PENDING_PAYMENT,
+                ReservationStatus.CANCELLED, cancelledAt.plusHours(1));
+        entityManager.clear();
+        List<RoomStay> secondChunk = reservationRepository.findStaysStartingOnOrBefore(
+                ReservationStatus.PENDING_PAYMENT, PaymentMode.BANK_TRANSFER, threshold, Limit.of(3));
+
+        assertThat(firstChunk).hasSize(3);
+        assertThat(updated).isEqualTo(3);
+        assertThat(updatedAgain).isZero();
+        assertThat(reservationRepository.findIdsWithStatus(ids, ReservationStatus.CANCELLED))
+                .containsExactlyInAnyOrderElementsOf(ids);
+        assertThat(secondChunk).hasSize(2).extracting(RoomStay::reservationId).doesNotContainAnyElementsOf(ids);
+        assertThat(reservationRepository.findAllById(ids)).extracting(Reservation::getUpdatedAt).containsOnly(cancelledAt);
+    }
+
+    @Test
+    @DisplayName("Should find the highest reservation id up to a bound")
+    void shouldFindMaxIdUpToBound() {
+        reservationRepository.saveAll(List.of(
+                Reservation.builder().id("0000A001").build(),
+                Reservation.builder().id("0000B002").build(),
+                Reservation.builder().id("ZZZZZZZZ").build()));
+
+        assertThat(reservationRepository.findMaxIdUpTo("0000Z000")).contains("0000B002");
+        assertThat(reservationRepository.findMaxIdUpTo("00000001")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should confirm only a pending bank transfer, in one conditional update")
+    void shouldConfirmPendingBankTransferConditionally() {
+        Reservation pending = Reservation.builder()
+                .status(ReservationStatus.PENDING_PAYMENT)
+                .paymentMode(PaymentMode.BANK_TRANSFER)
+                .build();
+        Reservation cash = Reservation.builder()
+                .status(ReservationStatus.PENDING_PAYMENT)
+                .paymentMode(PaymentMode.CASH)
+                .build();
+        reservationRepository.saveAll(List.of(pending, cash));
+        entityManager.flush();
+        LocalDateTime confirmedAt = LocalDateTime.of(2024, 1, 10, 12, 0);
+
+        int confirmed = reservationRepository.confirmPendingBankTransfer(pending.getId(), confirmedAt);
+        int confirmedAgain = reservationRepository.confirmPendingBankTransfer(pending.getId(), confirmedAt);
+        int cashConfirmed = reservationRepository.confirmPendingBankTransfer(cash.getId(), confirmedAt);
+        int missing = reservationRepository.confirmPendingBankTransfer("NONE0000", confirmedAt);
+        entityManager.clear();
+
+        assertThat(confirmed).isEqualTo(1);
+        assertThat(confirmedAgain).isZero();
+        assertThat(cashConfirmed).isZero();
+        assertThat(missing).isZero();
+        Reservation reloaded = reservationRepository.findById(pending.getId()).orElseThrow();
+        assertThat(reloaded.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+        assertThat(reloaded.getUpdatedAt()).isEqualTo(confirmedAt);
+        assertThat(reservationRepository.findStatusById(cash.getId())).contains(ReservationStatus.PENDING_PAYMENT);
+        assertThat(reservationRepository.findStatusById("NONE0000")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should reject saving a reservation read before a bulk status update")
+    void shouldRejectStaleSaveAfterBulkUpdate() {
+        Reservation pending = reservationRepository.saveAndFlush(Reservation.builder()
+                .status(ReservationStatus.PENDING_PAYMENT)
+                .paymentMode(PaymentMode.BANK_TRANSFER)
+                .build());
+        entityManager.clear();
+        Reservation stale = reservationRepository.findById(pending.getId()).orElseThrow();
+        entityManager.clear();
+
+        reservationRepository.updateStatus(List.of(pending.getId()),
+                ReservationStatus.PENDING_PAYMENT, ReservationStatus.CANCELLED, LocalDateTime.now());
+        stale.setStatus(ReservationStatus.CONFIRMED);
+
+        assertThat(stale.getVersion()).isZero();
+        assertThatThrownBy(() -> reservationRepository.saveAndFlush(stale))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+        entityManager.clear();
+        assertThat(reservationRepository.findStatusById(pending.getId())).contains(ReservationStatus.CANCELLED);
+    }
+
+    @Test
+    @DisplayName("Should page filtered reservation views by id, each page starting after the previous one")
+    void shouldPageFilteredViewsByKeyset() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        List<Reservation> matching = IntStream.range(0, 5)
+                .mapToObj(i -> Reservation.builder()
+                        .customerName("Guest " + i)
+                        .roomNumber("101")
+                        .status(ReservationStatus.CONFIRMED)
+                        .paymentMode(PaymentMode.CASH)
+                        .startDate(day.plusDays(i))
+                        .endDate(day.plusDays(i + 1))
+                        .build())
+                .toList();
+        Reservation otherRoom = Reservation.builder()
+                .roomNumber("102").status(ReservationStatus.CONFIRMED).paymentMode(PaymentMode.CASH)
+                .startDate(day).endDate(day.plusDays(1)).build();
+        Reservation cancelled = Reservation.builder()
+                .roomNumber("101").status(ReservationStatus.CANCELLED).paymentMode(PaymentMode.CASH)
+                .startDate(day).endDate(day.plusDays(1)).build();
+        Reservation outsideRange = Reservation.builder()
+                .roomNumber("101").status(ReservationStatus.CONFIRMED).paymentMode(PaymentMode.CASH)
+                .startDate(day.plusDays(10)).endDate(day.plusDays(12)).build();
+        reservationRepository.saveAll(matching);
+        reservationRepository.saveAll(List.of(otherRoom, cancelled, outsideRange));
+
+        ReservationFilter filter = new ReservationFilter(ReservationStatus.CONFIRMED, PaymentMode.CASH, "101",
+                day, day.plusDays(5));
+        List<ReservationView> first = reservationRepository.findViewsAfter(null, filter, Limit.of(3));
+        List<ReservationView> second = reservationRepository.findViewsAfter(first.getLast().reservationId(),
+                filter, Limit.of(3));
+        List<ReservationView> byRoom = reservationRepository.findViewsAfter(null,
+                new ReservationFilter(null, null, "101", null, null), Limit.of(100));
+        List<ReservationView> unfiltered = reservationRepository.findViewsAfter(
+                null, new ReservationFilter(null, null, null, null, null), Limit.of(100));
+
+        List<String> expectedIds = matching.stream().map(Reservation::getId).sorted().toList();
+        assertThat(first).extracting(ReservationView::reservationId).containsExactlyElementsOf(expectedIds.subList(0, 3));
+        assertThat(second).extracting(ReservationView::reservationId).containsExactlyElementsOf(expectedIds.subList(3, 5));
+        assertThat(byRoom).hasSize(7).extracting(ReservationView::reservationId).isSorted();
+        assertThat(unfiltered).hasSize(8).extracting(ReservationView::reservationId).isSorted();
+        assertThat(reservationRepository.findViewById(matching.getFirst().getId()))
+                .hasValueSatisfying(view -> {
+                    assertThat(view.customerName()).isEqualTo("Guest 0");
+                    assertThat(view.startDate()).isEqualTo(day);
+                    assertThat(view.createdAt()).isNotNull();
+                });
+        assertThat(reservationRepository.findViewById("NONE0000")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should stream every matching reservation view in id order")
+    void shouldStreamFilteredViewsInIdOrder() {
+        LocalDate day = LocalDate.of(2024, 3, 1);
+        List<Reservation> pending = IntStream.range(0, 3)
+                .mapToObj(i -> Reservation.builder()
+                        .customerName("Pending " + i)
+                        .roomNumber("30" + i)
+                        .status(ReservationStatus.PENDING_PAYMENT)
+                        .paymentMode(PaymentMode.BANK_TRANSFER)
+                        .startDate(day)
+                        .endDate(day.plusDays(2))
+                        .build())
+                .toList();
+        Reservation confirmed = Reservation.builder()
+                .roomNumber("310").status(ReservationStatus.CONFIRMED).paymentMode(PaymentMode.BANK_TRANSFER)
+                .startDate(day).endDate(day.plusDays(2)).build();
+        reservationRepository.saveAll(pending);
+        reservationRepository.save(confirmed);
+
+        List<String> streamed;
+        try (Stream<ReservationView> views = reservationRepository.streamViews(
+                new ReservationFilter(ReservationStatus.PENDING_PAYMENT, PaymentMode.BANK_TRANSFER, null, day, day.plusDays(1)))) {
+            streamed = views.map(ReservationView::reservationId).toList();
+        }
+
+        assertThat(streamed).containsExactlyElementsOf(pending.stream().map(Reservation::getId).sorted().toList());
+    }
+
+    @Test
+    @DisplayName("Should plan the overdue-cancellation and room lookups on the composite indexes")
+    void shouldUseCompositeIndexes() {
+        String overduePlan = explain("""
+                SELECT id FROM reservations
+                WHERE status = 'PENDING_PAYMENT' AND payment_mode = 'BANK_TRANSFER' AND start_date <= DATE '2024-01-01'""");
+        String roomPlan = explain("""
+                SELECT id FROM reservations
+                WHERE room_number = '101' AND start_date < DATE '2024-01-05' AND end_date > DATE '2024-01-01'""");
+
+        assertThat(overduePlan).containsIgnoringCase("idx_reservations_status_mode_start");
+        assertThat(roomPlan).containsIgnoringCase("idx_reservations_room_dates");
+    }
+
+    private String explain(String sql) {
+        return String.valueOf(entityManager.createNativeQuery("EXPLAIN " + sql).getSingleResult());
+    }
 }
@@ -4,20 +4,22 @@ package com.marvel.hospitality.reservationservice.scheduler;
 import ch.qos.logback.classic.Logger;
 import ch.qos.logback.classic.spi.ILoggingEvent;
 import ch.qos.logback.core.read.ListAppender;
-import com.marvel.hospitality.reservationservice.entity.Reservation;
-import com.marvel.hospitality.reservationservice.model.PaymentMode;
-import com.marvel.hospitality.reservationservice.model.ReservationStatus;
-import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import com.marvel.hospitality.reservationservice.availability.RoomAvailabilityIndex;
+import com.marvel.hospitality.reservationservice.dto.OverdueChunk;
+import com.marvel.hospitality.reservationservice.dto.RoomStay;
+import com.marvel.hospitality.reservationservice.service.ReservationService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.ArgumentCaptor;
-import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.slf4j.LoggerFactory;
+import org.springframework.test.util.ReflectionTestUtils;
 
 
 import java.time.LocalDate;
@@ -26,6 +28,8 @@ import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -34,17 +38,17 @@ class ReservationSchedulerTest {
 
 
     @Mock
-    private ReservationRepository repository;
+    private ReservationService reservationService;
+    @Mock
+    private RoomAvailabilityIndex availabilityIndex;
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
 
     @InjectMocks
     private ReservationScheduler scheduler;
 
 
-    @Captor
-    private ArgumentCaptor<Reservation> reservationCaptor;
-
-
     private ListAppender<ILoggingEvent> logAppender;
     private Logger logger;
 
@@ -55,6 +59,7 @@ class ReservationSchedulerTest {
         logAppender.start();
         logger = (Logger) LoggerFactory.getLogger(ReservationScheduler.class);
         logger.addAppender(logAppender);
+        ReflectionTestUtils.setField(scheduler, "chunkSize", 2);
     }
 
 
@@ -67,35 +72,76 @@ class ReservationSchedulerTest {
 
     @Test
     void cancelOverdue_cancelsAndLogs() {
-        Reservation overdue = Reservation.builder().id("RES001").status(ReservationStatus.PENDING_PAYMENT)
-                .paymentMode(PaymentMode.BANK_TRANSFER).startDate(LocalDate.now().plusDays(1)).build();
-        when(repository.findByStatusAndPaymentModeAndStartDateLessThanEqual(any(), any(), any()))
-                .thenReturn(List.of(overdue));
+        RoomStay overdue = new RoomStay("RES001", "101", LocalDate.now().plusDays(1), LocalDate.now().plusDays(3));
+        when(reservationService.cancelOverdueBankTransfers(LocalDate.now().plusDays(2), 2))
+                .thenReturn(new OverdueChunk(1, List.of(overdue)))
+                .thenReturn(new OverdueChunk(0, List.of()));
 
 
         scheduler.cancelOverdueBankTransferReservations();
 
 
-        verify(repository).save(reservationCaptor.capture());
-        assertThat(reservationCaptor.getValue().getStatus()).isEqualTo(ReservationStatus.CANCELLED);
+        verify(reservationService, times(2)).cancelOverdueBankTransfers(any(), eq(2));
+        verify(availabilityIndex).release("101", overdue.startDate(), overdue.endDate());
 
 
         List<ILoggingEvent> logs = logAppender.list;
         assertThat(logs).anyMatch(e -> e.getFormattedMessage().contains("Starting overdue cancellation check"));
-        assertThat(logs).anyMatch(e -> e.getFormattedMessage().contains("Cancelled reservation RES001"));
+        assertThat(logs).anyMatch(e -> e.getFormattedMessage().contains("Cancelled reservations [RES001]"));
+        assertThat(logs).anyMatch(e -> e.getFormattedMessage().contains("processed 1 reservations"));
+    }
+
+
+    @Test
+    void cancelOverdue_processesChunksUntilNothingIsLeft() {
+        LocalDate start = LocalDate.now();
+        when(reservationService.cancelOverdueBankTransfers(any(), anyInt()))
+                .thenReturn(new OverdueChunk(2, List.of(new RoomStay("RES001", "101", start, start.plusDays(1)),
+                        new RoomStay("RES002", "102", start, start.plusDays(2)))))
+                .thenReturn(new OverdueChunk(1, List.of(new RoomStay("RES003", "103", start, start.plusDays(3)))))
+                .thenReturn(new OverdueChunk(0, List.of()));
+
+
+        scheduler.cancelOverdueBankTransferReservations();
+
+
+        verify(reservationService, times(3)).cancelOverdueBankTransfers(any(), eq(2));
+        verify(availabilityIndex, times(3)).release(any(), any(), any());
+        assertThat(logAppender.list).anyMatch(e -> e.getFormattedMessage().contains("processed 3 reservations"));
+        assertThat(meterRegistry.counter("reservation.cancel.overdue.rows").count()).isEqualTo(3);
+        assertThat(meterRegistry.timer("reservation.cancel.overdue", "outcome", "success").count()).isEqualTo(1);
+    }
+
+
+    @Test
+    void cancelOverdue_chunkConfirmedConcurrently_keepsGoing() {
+        LocalDate start = LocalDate.now();
+        when(reservationService.cancelOverdueBankTransfers(any(), anyInt()))
+                .thenReturn(new OverdueChunk(2, List.of()))
+                .thenReturn(new OverdueChunk(1, List.of(new RoomStay("RES003", "103", start, start.plusDays(3)))))
+                .thenReturn(new OverdueChunk(0, List.of()));
+
+
+        scheduler.cancelOverdueBankTransferReservations();
+
+
+        verify(reservationService, times(3)).cancelOverdueBankTransfers(any(), eq(2));
+        verify(availabilityIndex).release("103", start, start.plusDays(3));
+        assertThat(logAppender.list).anyMatch(e -> e.getFormattedMessage().contains("processed 1 reservations"));
     }
 
 
     @Test
-    void noOverdue_logsAndNoSave() {
-        when(repository.findByStatusAndPaymentModeAndStartDateLessThanEqual(any(), any(), any()))
-                .thenReturn(List.of());
+    void noOverdue_logsAndNoRelease() {
+        when(reservationService.cancelOverdueBankTransfers(any(), anyInt()))
+                .thenReturn(new OverdueChunk(0, List.of()));
 
 
         scheduler.cancelOverdueBankTransferReservations();
 
 
-        verify(repository, never()).save(any());
+        verify(reservationService, times(1)).cancelOverdueBankTransfers(any(), anyInt());
+        verifyNoInteractions(availabilityIndex);
 
 
         List<ILoggingEvent> logs = logAppender.list;
@@ -105,7 +151,7 @@ class ReservationSchedulerTest {
 
     @Test
     void queryException_logsFailure() {
-        when(repository.findByStatusAndPaymentModeAndStartDateLessThanEqual(any(), any(), any()))
+        when(reservationService.cancelOverdueBankTransfers(any(), anyInt()))
                 .thenThrow(new RuntimeException("DB error"));
 
 
@@ -115,5 +161,6 @@ class ReservationSchedulerTest {
         List<ILoggingEvent> logs = logAppender.list;
         assertThat(logs).anyMatch(e ->
                 e.getFormattedMessage().contains("Overdue cancellation task failed"));
+        assertThat(meterRegistry.timer("reservation.cancel.overdue", "outcome", "failure").count()).isEqualTo(1);
     }
 }
@@ -1,25 +1,45 @@
 package com.marvel.hospitality.reservationservice.service.impl;
 
 
-import com.marvel.hospitality.reservationservice.client.CreditCardClient;
+import com.marvel.hospitality.reservationservice.availability.RoomAvailabilityIndex;
+import com.marvel.hospitality.reservationservice.availability.RoomBookings;
+import com.marvel.hospitality.reservationservice.cache.ReservationCache;
+import com.marvel.hospitality.reservationservice.client.CachingPaymentVerifier;
+import com.marvel.hospitality.reservationservice.dedup.ProcessedPayments;
 import com.marvel.hospitality.reservationservice.dto.*;
 import com.marvel.hospitality.reservationservice.entity.Reservation;
 import com.marvel.hospitality.reservationservice.model.*;
 import com.marvel.hospitality.reservationservice.exception.*;
 import com.marvel.hospitality.reservationservice.repository.ReservationRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.web.client.HttpClientErrorException;
 
 
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 
 import static org.assertj.core.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 
@@ -29,7 +49,17 @@ class ReservationServiceImplTest {
     @Mock
     private ReservationRepository repository;
     @Mock
-    private CreditCardClient creditCardClient;
+    private CachingPaymentVerifier paymentVerifier;
+    @Mock
+    private RoomAvailabilityIndex availabilityIndex;
+    @Mock
+    private RoomBookings roomBookings;
+    @Mock
+    private ProcessedPayments processedPayments;
+    @Spy
+    private ReservationCache reservationCache = new ReservationCache(100, Duration.ofMinutes(1), new SimpleMeterRegistry());
+    @Spy
+    private MeterRegistry meterRegistry = new SimpleMeterRegistry();
 
     @InjectMocks
     private ReservationServiceImpl service;
@@ -40,13 +70,15 @@ class ReservationServiceImplTest {
         ReservationRequest req = new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
                 RoomSegment.MEDIUM, PaymentMode.CASH, null);
 
-        when(repository.save(any(Reservation.class))).thenAnswer(i -> i.getArgument(0));
+        when(roomBookings.save(any(Reservation.class))).thenAnswer(i -> i.getArgument(0));
 
         ReservationResponse resp = service.createReservation(req);
 
         assertThat(resp.status()).isEqualTo(ReservationStatus.CONFIRMED);
-        verify(repository).save(any());
-        verifyNoInteractions(creditCardClient);
+        verify(roomBookings).save(any());
+        verifyNoInteractions(paymentVerifier);
+        assertThat(meterRegistry.timer("reservation.create", "payment_mode", "CASH", "outcome", "created").count())
+                .isEqualTo(1);
     }
 
     @Test
@@ -54,14 +86,14 @@ class ReservationServiceImplTest {
         ReservationRequest req = new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
                 RoomSegment.MEDIUM, PaymentMode.CREDIT_CARD, "REF-123");
 
-        when(creditCardClient.verifyPayment("REF-123"))
+        when(paymentVerifier.verifyPayment("REF-123"))
                 .thenReturn(new PaymentStatusResponse("", PaymentConfirmationStatus.CONFIRMED));
-        when(repository.save(any(Reservation.class))).thenAnswer(i -> i.getArgument(0));
+        when(roomBookings.save(any(Reservation.class))).thenAnswer(i -> i.getArgument(0));
 
         ReservationResponse resp = service.createReservation(req);
 
         assertThat(resp.status()).isEqualTo(ReservationStatus.CONFIRMED);
-        verify(creditCardClient).verifyPayment("REF-123");
+        verify(paymentVerifier).verifyPayment("REF-123");
     }
 
     @Test
@@ -89,11 +121,55 @@ class ReservationServiceImplTest {
         ReservationRequest req = new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
                 RoomSegment.MEDIUM, PaymentMode.CREDIT_CARD, "REF-FAIL");
 
-        when(creditCardClient.verifyPayment("REF-FAIL"))
+        when(paymentVerifier.verifyPayment("REF-FAIL"))
+                .thenReturn(new PaymentStatusResponse("", PaymentConfirmationStatus.REJECTED));
+
+        assertThatThrownBy(() -> service.createReservation(req))
+                .isInstanceOf(PaymentRejectedException.class);
+        assertThat(meterRegistry.timer("reservation.create",
+                "payment_mode", "CREDIT_CARD", "outcome", "payment_rejected").count()).isEqualTo(1);
+    }
+
+    @Test
+    void createReservation_RoomAlreadyBooked_Throws() {
+        ReservationRequest req = new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
+                RoomSegment.MEDIUM, PaymentMode.CASH, null);
+
+        doThrow(new RoomUnavailableException("Room 101 is already booked"))
+                .when(availabilityIndex).reserve("101", req.startDate(), req.endDate());
+
+        assertThatThrownBy(() -> service.createReservation(req))
+                .isInstanceOf(RoomUnavailableException.class);
+        verify(roomBookings, never()).save(any());
+    }
+
+    @Test
+    void createReservation_CreditCard_Rejected_ReleasesRoom() {
+        ReservationRequest req = new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
+                RoomSegment.MEDIUM, PaymentMode.CREDIT_CARD, "REF-FAIL");
+
+        when(paymentVerifier.verifyPayment("REF-FAIL"))
                 .thenReturn(new PaymentStatusResponse("", PaymentConfirmationStatus.REJECTED));
 
         assertThatThrownBy(() -> service.createReservation(req))
                 .isInstanceOf(PaymentRejectedException.class);
+        InOrder inOrder = inOrder(availabilityIndex, paymentVerifier);
+        inOrder.verify(availabilityIndex).reserve("101", req.startDate(), req.endDate());
+        inOrder.verify(paymentVerifier).verifyPayment("REF-FAIL");
+        inOrder.verify(availabilityIndex).release("101", req.startDate(), req.endDate());
+        verify(roomBookings, never()).save(any());
+    }
+
+    @Test
+    void createReservation_SaveFails_ReleasesRoom() {
+        ReservationRequest req = new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
+                RoomSegment.MEDIUM, PaymentMode.CASH, null);
+
+        when(roomBookings.save(any(Reservation.class))).thenThrow(new IllegalStateException("DB down"));
+
+        assertThatThrownBy(() -> service.createReservation(req))
+                .isInstanceOf(IllegalStateException.class);
+        verify(availabilityIndex).release("101", req.startDate(), req.endDate());
     }
 
     @Test
@@ -117,36 +193,375 @@ class ReservationServiceImplTest {
     }
 
 
+    @Test
+    void createReservations_AllOrNothing_AllValid_SavesInOneCall() {
+        List<ReservationRequest> requests = List.of(
+                new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
+                        RoomSegment.MEDIUM, PaymentMode.CASH, null),
+                new ReservationRequest("Jane", "102", LocalDate.now(), LocalDate.now().plusDays(2),
+                        RoomSegment.MEDIUM, PaymentMode.BANK_TRANSFER, null));
+
+        BatchReservationResponse resp = service.createReservations(requests, BatchMode.ALL_OR_NOTHING);
+
+        assertThat(resp.results()).extracting(BatchReservationResult::status)
+                .containsExactly(ReservationStatus.CONFIRMED, ReservationStatus.PENDING_PAYMENT);
+        assertThat(resp.allCreated()).isFalse();
+        verify(roomBookings).saveAll(argThat(list -> list.size() == 2), eq(BatchMode.ALL_OR_NOTHING));
+    }
+
+    @Test
+    void createReservations_AllOrNothing_InvalidItem_Throws() {
+        List<ReservationRequest> requests = List.of(
+                new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
+                        RoomSegment.MEDIUM, PaymentMode.CASH, null),
+                new ReservationRequest("Jane", "102", LocalDate.now().plusDays(2), LocalDate.now(),
+                        RoomSegment.MEDIUM, PaymentMode.CASH, null));
+
+        assertThatThrownBy(() -> service.createReservations(requests, BatchMode.ALL_OR_NOTHING))
+                .isInstanceOf(ReservationValidationException.class)
+                .hasMessage("Reservation End date must be after Start date");
+        verify(roomBookings, never()).saveAll(anyList(), any());
+    }
+
+    @Test
+    void createReservations_PerItem_ReportsFailuresAndSavesTheRest() {
+        List<ReservationRequest> requests = List.of(
+                new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
+                        RoomSegment.MEDIUM, PaymentMode.CREDIT_CARD, "REF-FAIL"),
+                new ReservationRequest("Jane", "102", LocalDate.now(), LocalDate.now().plusDays(2),
+                        RoomSegment.MEDIUM, PaymentMode.CASH, null),
+                new ReservationRequest("Jim", "103", LocalDate.now(), LocalDate.now().plusDays(2),
+                        RoomSegment.MEDIUM, PaymentMode.CASH, null));
+
+        when(paymentVerifier.verifyPaymentAsync("REF-FAIL"))
+                .thenReturn(CompletableFuture.completedFuture(
+                        new PaymentStatusResponse("", PaymentConfirmationStatus.REJECTED)));
+        doAnswer(invocation -> {
+            if ("103".equals(invocation.getArgument(0))) {
+                throw new RoomUnavailableException("Room 103 is already booked");
+            }
+            return null;
+        }).when(availabilityIndex).reserve(any(), any(), any());
+
+        BatchReservationResponse resp = service.createReservations(requests, BatchMode.PER_ITEM);
+
+        assertThat(resp.results()).extracting(BatchReservationResult::error)
+                .containsExactly("The card payment was REJECTED", null, "Room 103 is already booked");
+        assertThat(resp.results().get(1).status()).isEqualTo(ReservationStatus.CONFIRMED);
+        verify(roomBookings).saveAll(argThat(list -> list.size() == 1), eq(BatchMode.PER_ITEM));
+    }
+
+    @Test
+    void createReservation_BookedOnAnotherInstance_ReleasesRoom() {
+        ReservationRequest req = new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
+                RoomSegment.MEDIUM, PaymentMode.CASH, null);
+
+        when(roomBookings.save(any(Reservation.class)))
+                .thenThrow(RoomUnavailableException.booked("101", req.startDate(), req.endDate()));
+
+        assertThatThrownBy(() -> service.createReservation(req))
+                .isInstanceOf(RoomUnavailableException.class);
+        verify(availabilityIndex).release("101", req.startDate(), req.endDate());
+        verify(availabilityIndex, never()).settle(any(), any(), any());
+        assertThat(meterRegistry.timer("reservation.create",
+                "payment_mode", "CASH", "outcome", "room_unavailable").count()).isEqualTo(1);
+    }
+
+    @Test
+    void createReservation_Saved_SettlesTheHold() {
+        ReservationRequest req = new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
+                RoomSegment.MEDIUM, PaymentMode.CASH, null);
+
+        service.createReservation(req);
+
+        InOrder inOrder = inOrder(availabilityIndex, roomBookings);
+        inOrder.verify(availabilityIndex).reserve("101", req.startDate(), req.endDate());
+        inOrder.verify(roomBookings).save(any(Reservation.class));
+        inOrder.verify(availabilityIndex).settle("101", req.startDate(), req.endDate());
+    }
+
+    @Test
+    void createReservations_PerItem_ReportsStaysBookedOnAnotherInstance() {
+        List<ReservationRequest> requests = List.of(
+                new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
+                        RoomSegment.MEDIUM, PaymentMode.CASH, null),
+                new ReservationRequest("Jane", "102", LocalDate.now(), LocalDate.now().plusDays(2),
+                        RoomSegment.MEDIUM, PaymentMode.CASH, null));
+
+        when(roomBookings.saveAll(anyList(), eq(BatchMode.PER_ITEM)))
+                .thenAnswer(invocation -> List.of(invocation.<List<Reservation>>getArgument(0).get(1)));
+
+        BatchReservationResponse resp = service.createReservations(requests, BatchMode.PER_ITEM);
+
+        assertThat(resp.results()).extracting(BatchReservationResult::error)
+                .containsExactly(null, "Room 102 is already booked between %s and %s"
+                        .formatted(requests.get(1).startDate(), requests.get(1).endDate()));
+        verify(availabilityIndex).settle("101", requests.get(0).startDate(), requests.get(0).endDate());
+        verify(availabilityIndex).release("102", requests.get(1).startDate(), requests.get(1).endDate());
+    }
+
+    @Test
+    void createReservations_VerifiesCardPaymentsConcurrently() {
+        List<ReservationRequest> requests = List.of(
+                new ReservationRequest("John", "101", LocalDate.now(), LocalDate.now().plusDays(2),
+                        RoomSegment.MEDIUM, PaymentMode.CREDIT_CARD, "REF-1"),
+                new ReservationRequest("Jane", "102", LocalDate.now(), LocalDate.now().plusDays(2),
+                        RoomSegment.MEDIUM, PaymentMode.CREDIT_CARD, "REF-2"),
+                new ReservationRequest("Jim", "103", LocalDate.now(), LocalDate.now().plusDays(2),
+                        RoomSegment.MEDIUM, PaymentMode.CREDIT_CARD, "REF-404"));
+
+        CompletableFuture<PaymentStatusResponse> first = new CompletableFuture<>();
+        CompletableFuture<PaymentStatusResponse> second = new CompletableFuture<>();
+        when(paymentVerifier.verifyPaymentAsync("REF-1")).thenReturn(first);
+        when(paymentVerifier.verifyPaymentAsync("REF-2")).thenAnswer(invocation -> {
+            first.complete(new PaymentStatusResponse("", PaymentConfirmationStatus.CONFIRMED));
+            second.complete(new PaymentStatusResponse("", PaymentConfirmationStatus.CONFIRMED));
+            return second;
+        });
+        when(paymentVerifier.verifyPaymentAsync("REF-404")).thenReturn(CompletableFuture.failedFuture(
+                new HttpClientErrorException(HttpStatus.NOT_FOUND)));
+
+        BatchReservationResponse resp = service.createReservations(requests, BatchMode.PER_ITEM);
+
+        assertThat(resp.results()).extracting(BatchReservationResult::error)
+                .containsExactly(null, null, "Payment Reference was not found or invalid");
+        verify(paymentVerifier, never()).verifyPayment(any());
+    }
+
     @Test
     void confirmBankTransferPayment_NotFound_DoesNothing() {
-        when(repository.findById("NONE")).thenReturn(Optional.empty());
+        when(repository.findStatusById("NONE")).thenReturn(Optional.empty());
 
-        service.confirmBankTransferPayment("NONE");
+        service.confirmBankTransferPayment(new BankTransferPayment("PAY1", "NONE"));
 
-        verify(repository, never()).save(any());
+        verify(repository).confirmPendingBankTransfer(eq("NONE"), any());
+        verify(roomBookings, never()).save(any());
+        verify(processedPayments).markProcessed(new BankTransferPayment("PAY1", "NONE"));
+        assertThat(confirmations("not_found")).isEqualTo(1);
     }
 
     @Test
-    void confirmBankTransferPayment_WrongMode_DoesNothing() {
-        Reservation res = Reservation.builder().status(ReservationStatus.PENDING_PAYMENT)
-                .paymentMode(PaymentMode.CASH).build();
-        when(repository.findById("ID1")).thenReturn(Optional.of(res));
+    void confirmBankTransferPayment_NotPendingBankTransfer_OnlyReadsStatusBack() {
+        when(repository.findStatusById("ID1")).thenReturn(Optional.of(ReservationStatus.CONFIRMED));
 
-        service.confirmBankTransferPayment("ID1");
+        service.confirmBankTransferPayment(new BankTransferPayment("PAY1", "ID1"));
 
-        verify(repository, never()).save(any());
+        verify(repository).confirmPendingBankTransfer(eq("ID1"), any());
+        verify(repository, never()).findById(any());
+        verify(roomBookings, never()).save(any());
+        assertThat(confirmations("skipped")).isEqualTo(1);
     }
 
     @Test
     void confirmBankTransferPayment_Success() {
-        Reservation res = Reservation.builder()
+        when(repository.confirmPendingBankTransfer(eq("ID1"), any())).thenReturn(1);
+
+        service.confirmBankTransferPayment(new BankTransferPayment("PAY1", "ID1"));
+
+        InOrder inOrder = inOrder(repository, processedPayments);
+        inOrder.verify(repository).confirmPendingBankTransfer(eq("ID1"), any());
+        inOrder.verify(processedPayments).markProcessed(new BankTransferPayment("PAY1", "ID1"));
+        verify(reservationCache).evictAfterCommit("ID1");
+        verify(repository, never()).findStatusById(any());
+        verify(repository, never()).findById(any());
+        assertThat(confirmations("confirmed")).isEqualTo(1);
+    }
+
+    @Test
+    void confirmBankTransferPayment_DuplicatePayment_DoesNotTouchReservation() {
+        when(processedPayments.isProcessed("PAY1")).thenReturn(true);
+
+        service.confirmBankTransferPayment(new BankTransferPayment("PAY1", "ID1"));
+
+        verifyNoInteractions(repository);
+        verify(processedPayments, never()).markProcessed(any(BankTransferPayment.class));
+        assertThat(confirmations("duplicate")).isEqualTo(1);
+    }
+
+    @Test
+    void confirmBankTransferPayments_ConfirmsOnlyPendingBankTransfers() {
+        Reservation pending = Reservation.builder().id("ID1")
                 .status(ReservationStatus.PENDING_PAYMENT)
                 .paymentMode(PaymentMode.BANK_TRANSFER).build();
-        when(repository.findById("ID1")).thenReturn(Optional.of(res));
+        Reservation alreadyConfirmed = Reservation.builder().id("ID2")
+                .status(ReservationStatus.CONFIRMED)
+                .paymentMode(PaymentMode.BANK_TRANSFER).build();
+        Reservation cash = Reservation.builder().id("ID3")
+                .status(ReservationStatus.PENDING_PAYMENT)
+                .paymentMode(PaymentMode.CASH).build();
+        when(repository.findAllById(any())).thenReturn(List.of(pending, alreadyConfirmed, cash));
+
+        service.confirmBankTransferPayments(List.of(
+                new BankTransferPayment("PAY1", "ID1"), new BankTransferPayment("PAY2", "ID2"),
+                new BankTransferPayment("PAY3", "ID3"), new BankTransferPayment("PAY4", "NONE"),
+                new BankTransferPayment(null, "ID1")));
+
+        verify(repository).findAllById(Set.of("ID1", "ID2", "ID3", "NONE"));
+        verify(repository).saveAllAndFlush(List.of(pending));
+        verify(reservationCache).evictAfterCommit(List.of("ID1"));
+        assertThat(pending.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
+        assertThat(cash.getStatus()).isEqualTo(ReservationStatus.PENDING_PAYMENT);
+    }
+
+    @Test
+    void confirmBankTransferPayments_SkipsProcessedAndRepeatedPayments() {
+        Reservation pending = Reservation.builder().id("ID2")
+                .status(ReservationStatus.PENDING_PAYMENT)
+                .paymentMode(PaymentMode.BANK_TRANSFER).build();
+        when(processedPayments.processedOf(List.of("PAY1", "PAY2", "PAY2"))).thenReturn(Set.of("PAY1"));
+        when(repository.findAllById(any())).thenReturn(List.of(pending));
+
+        service.confirmBankTransferPayments(List.of(new BankTransferPayment("PAY1", "ID1"),
+                new BankTransferPayment("PAY2", "ID2"), new BankTransferPayment("PAY2", "ID2")));
+
+        verify(repository).findAllById(Set.of("ID2"));
+        verify(repository).saveAllAndFlush(List.of(pending));
+        verify(processedPayments).markProcessed(List.of(new BankTransferPayment("PAY2", "ID2")));
+    }
+
+    @Test
+    void confirmBankTransferPayments_AllDuplicates_DoesNotTouchReservations() {
+        when(processedPayments.processedOf(List.of("PAY1"))).thenReturn(Set.of("PAY1"));
+
+        service.confirmBankTransferPayments(List.of(new BankTransferPayment("PAY1", "ID1")));
+
+        verifyNoInteractions(repository);
+        verify(processedPayments, never()).markProcessed(anyList());
+    }
+
+    @Test
+    void confirmBankTransferPayments_ConcurrentUpdate_CountsConflictAndRethrowsForRetry() {
+        Reservation pending = Reservation.builder().id("ID1")
+                .status(ReservationStatus.PENDING_PAYMENT)
+                .paymentMode(PaymentMode.BANK_TRANSFER).build();
+        when(repository.findAllById(any())).thenReturn(List.of(pending));
+        when(repository.saveAllAndFlush(any()))
+                .thenThrow(new ObjectOptimisticLockingFailureException(Reservation.class, "ID1"));
+
+        assertThatThrownBy(() -> service.confirmBankTransferPayments(List.of(new BankTransferPayment("PAY1", "ID1"))))
+                .isInstanceOf(ObjectOptimisticLockingFailureException.class);
+
+        assertThat(meterRegistry.counter("reservation.update.conflicts", "operation", "confirm_batch").count())
+                .isEqualTo(1);
+        verify(processedPayments, never()).markProcessed(anyList());
+        verify(reservationCache, never()).evictAfterCommit(anyList());
+    }
+
+    @Test
+    void confirmBankTransferPayments_Empty_DoesNothing() {
+        service.confirmBankTransferPayments(List.of());
+
+        verifyNoInteractions(repository);
+    }
+
+    @Test
+    void cancelOverdueBankTransfers_BulkUpdatesSelectedChunk() {
+        LocalDate threshold = LocalDate.now().plusDays(2);
+        List<RoomStay> stays = List.of(
+                new RoomStay("ID1", "101", LocalDate.now(), LocalDate.now().plusDays(1)),
+                new RoomStay("ID2", "102", LocalDate.now(), LocalDate.now().plusDays(1)));
+        when(repository.findStaysStartingOnOrBefore(ReservationStatus.PENDING_PAYMENT, PaymentMode.BANK_TRANSFER,
+                threshold, Limit.of(2))).thenReturn(stays);
+        when(repository.updateStatus(eq(List.of("ID1", "ID2")), eq(ReservationStatus.PENDING_PAYMENT),
+                eq(ReservationStatus.CANCELLED), any(LocalDateTime.class))).thenReturn(2);
+
+        assertThat(service.cancelOverdueBankTransfers(threshold, 2)).isEqualTo(new OverdueChunk(2, stays));
+
+        verify(reservationCache).evictAfterCommit(List.of("ID1", "ID2"));
+        verify(repository, never()).findIdsWithStatus(any(), any());
+        verify(roomBookings, never()).save(any());
+    }
+
+    @Test
+    void cancelOverdueBankTransfers_ConcurrentlyConfirmed_LeftOutOfResult() {
+        LocalDate threshold = LocalDate.now().plusDays(2);
+        RoomStay cancelled = new RoomStay("ID1", "101", LocalDate.now(), LocalDate.now().plusDays(1));
+        RoomStay confirmedMeanwhile = new RoomStay("ID2", "102", LocalDate.now(), LocalDate.now().plusDays(1));
+        when(repository.findStaysStartingOnOrBefore(any(), any(), any(), any()))
+                .thenReturn(List.of(cancelled, confirmedMeanwhile));
+        when(repository.updateStatus(any(), any(), any(), any())).thenReturn(1);
+        when(repository.findIdsWithStatus(List.of("ID1", "ID2"), ReservationStatus.CANCELLED))
+                .thenReturn(List.of("ID1"));
+
+        OverdueChunk chunk = service.cancelOverdueBankTransfers(threshold, 10);
+
+        assertThat(chunk.selected()).isEqualTo(2);
+        assertThat(chunk.cancelled()).containsExactly(cancelled);
+        assertThat(meterRegistry.counter("reservation.update.conflicts", "operation", "cancel").count()).isEqualTo(1);
+    }
+
+    @Test
+    void cancelOverdueBankTransfers_NothingOverdue_SkipsUpdate() {
+        when(repository.findStaysStartingOnOrBefore(any(), any(), any(), any())).thenReturn(List.of());
+
+        assertThat(service.cancelOverdueBankTransfers(LocalDate.now(), 10)).isEqualTo(new OverdueChunk(0, List.of()));
+
+        verify(repository, never()).updateStatus(any(), any(), any(), any());
+    }
+
+    @Test
+    void getReservation_SecondLookup_ServedFromCacheUntilEvicted() {
+        when(repository.findViewById("ID1")).thenReturn(Optional.of(view("ID1")));
+
+        service.getReservation("ID1");
+        service.getReservation("ID1");
+        reservationCache.evictAfterCommit("ID1");
+        service.getReservation("ID1");
+
+        verify(repository, times(2)).findViewById("ID1");
+    }
+
+    @Test
+    void getReservation_NotFound_Throws() {
+        when(repository.findViewById("NONE0000")).thenReturn(Optional.empty());
 
-        service.confirmBankTransferPayment("ID1");
+        assertThatThrownBy(() -> service.getReservation("NONE0000"))
+                .isInstanceOf(ReservationNotFoundException.class);
+    }
+
+    @Test
+    void findReservations_MoreRows_ReturnsPageWithNextCursor() {
+        ReservationFilter filter = new ReservationFilter(ReservationStatus.CONFIRMED, null, "101", null, null);
+        when(repository.findViewsAfter("ID0", filter, Limit.of(3)))
+                .thenReturn(List.of(view("ID1"), view("ID2"), view("ID3")));
+
+        ReservationPage page = service.findReservations(filter, "ID0", 2);
+
+        assertThat(page.reservations()).extracting(ReservationView::reservationId).containsExactly("ID1", "ID2");
+        assertThat(page.nextCursor()).isEqualTo("ID2");
+    }
+
+    @Test
+    void findReservations_LastPage_HasNoCursor() {
+        ReservationFilter filter = new ReservationFilter(null, null, null, null, null);
+        when(repository.findViewsAfter(null, filter, Limit.of(3)))
+                .thenReturn(List.of(view("ID1")));
+
+        ReservationPage page = service.findReservations(filter, null, 2);
+
+        assertThat(page.reservations()).hasSize(1);
+        assertThat(page.nextCursor()).isNull();
+    }
+
+    @Test
+    void findReservations_InvalidLimitOrRange_Throws() {
+        ReservationFilter unfiltered = new ReservationFilter(null, null, null, null, null);
+
+        assertThatThrownBy(() -> service.findReservations(unfiltered, null, 0))
+                .isInstanceOf(ReservationValidationException.class);
+        assertThatThrownBy(() -> service.findReservations(unfiltered, null, 101))
+                .isInstanceOf(ReservationValidationException.class);
+        assertThatThrownBy(() -> new ReservationFilter(null, null, null, LocalDate.now(), LocalDate.now()))
+                .isInstanceOf(ReservationValidationException.class);
+        verifyNoInteractions(repository);
+    }
+
+    private static ReservationView view(String id) {
+        return new ReservationView(id, "John", "101", LocalDate.now(), LocalDate.now().plusDays(1),
+                RoomSegment.MEDIUM, PaymentMode.CASH, ReservationStatus.CONFIRMED, null);
+    }
 
-        assertThat(res.getStatus()).isEqualTo(ReservationStatus.CONFIRMED);
-        verify(repository).save(res);
+    private double confirmations(String outcome) {
+        return meterRegistry.timer("payment.update.confirm", "outcome", outcome).count();
     }
-}
\ No newline at end of file
+}